@@ -0,0 +1,130 @@
+package io.bspk.httpsig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verifies many signatures at once, spread across an executor.
+ *
+ * The entries are split into one contiguous chunk per unit of parallelism, so
+ * only a handful of tasks are scheduled no matter how many entries are in the
+ * batch. Results are returned in the same order as the entries. Any executor
+ * can be used, such as a {@link ForkJoinPool} or a virtual thread executor.
+ *
+ * @author jricher
+ *
+ */
+public class BatchVerifier {
+
+	private static final Logger log = LoggerFactory.getLogger(BatchVerifier.class);
+
+	private final Executor executor;
+	private final int parallelism;
+
+	/**
+	 * Run on the common fork-join pool.
+	 */
+	public BatchVerifier() {
+		this(ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+	}
+
+	/**
+	 * Run on the given executor with one chunk per available processor.
+	 */
+	public BatchVerifier(Executor executor) {
+		this(executor, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Run on the given executor, splitting each batch into at most {@code parallelism} chunks.
+	 */
+	public BatchVerifier(Executor executor, int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1");
+		}
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Verify all entries. The result at each index is the result for the entry at that index.
+	 */
+	public List<Boolean> verifyAll(List<Entry> entries) {
+		int size = entries.size();
+		boolean[] results = new boolean[size];
+
+		int chunks = Math.min(size, parallelism);
+		if (chunks <= 1) {
+			verifyRange(entries, results, 0, size);
+		} else {
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks];
+			for (int c = 0; c < chunks; c++) {
+				int from = (int) ((long) c * size / chunks);
+				int to = (int) ((long) (c + 1) * size / chunks);
+				futures[c] = CompletableFuture.runAsync(() -> verifyRange(entries, results, from, to), executor);
+			}
+			CompletableFuture.allOf(futures).join();
+		}
+
+		List<Boolean> list = new ArrayList<>(size);
+		for (boolean result : results) {
+			list.add(result);
+		}
+		return list;
+	}
+
+	private static void verifyRange(List<Entry> entries, boolean[] results, int from, int to) {
+		for (int i = from; i < to; i++) {
+			results[i] = entries.get(i).verify();
+		}
+	}
+
+	/**
+	 * A single signature to verify, along with the verifier for its key and algorithm.
+	 */
+	public static class Entry {
+
+		private final HttpVerify verifier;
+		private final SignatureBaseWriter base;
+		private final byte[] signature;
+
+		private Entry(HttpVerify verifier, SignatureBaseWriter base, byte[] signature) {
+			this.verifier = verifier;
+			this.base = base;
+			this.signature = signature;
+		}
+
+		/**
+		 * An already created signature base.
+		 */
+		public static Entry of(HttpVerify verifier, byte[] base, byte[] signature) {
+			return new Entry(verifier, out -> out.write(base), signature);
+		}
+
+		/**
+		 * A signature base that is built from the message when the entry is verified,
+		 * so the base building also runs on the executor.
+		 */
+		public static Entry of(HttpVerify verifier, SignatureParameters sigParams, ComponentProvider ctx, byte[] signature) {
+			return new Entry(verifier, new SignatureBaseBuilder(sigParams, ctx), signature);
+		}
+
+		boolean verify() {
+			try {
+				return verifier.verify(base, signature);
+			} catch (RuntimeException e) {
+				// usually a covered component that couldn't be found in the message
+				log.warn("Could not verify batch entry", e);
+				return false;
+			}
+		}
+
+	}
+
+}
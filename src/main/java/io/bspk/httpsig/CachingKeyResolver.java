@@ -0,0 +1,91 @@
+package io.bspk.httpsig;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Caches the verifiers from another {@link KeyResolver}.
+ *
+ * The cache is bounded in size, evicting the least recently used keys first,
+ * and entries expire a fixed time after they were loaded. Keys that the
+ * underlying resolver doesn't know are remembered separately for a (usually
+ * shorter) time so that repeated requests for them don't hit the resolver.
+ * Concurrent requests for the same uncached key wait on a single load.
+ *
+ * @author jricher
+ *
+ */
+public class CachingKeyResolver implements KeyResolver {
+
+	private static final Logger log = LoggerFactory.getLogger(CachingKeyResolver.class);
+
+	private final LoadingCache<String, Optional<HttpVerify>> verifiers;
+	private final Cache<String, Boolean> unknown;
+
+	public CachingKeyResolver(KeyResolver delegate, long maximumSize, Duration ttl, Duration negativeTtl) {
+		this.verifiers = CacheBuilder.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(ttl)
+			.build(new CacheLoader<String, Optional<HttpVerify>>() {
+				@Override
+				public Optional<HttpVerify> load(String keyid) {
+					return Optional.ofNullable(delegate.resolve(keyid));
+				}
+			});
+		this.unknown = CacheBuilder.newBuilder()
+			.maximumSize(maximumSize)
+			.expireAfterWrite(negativeTtl)
+			.build();
+	}
+
+	@Override
+	public HttpVerify resolve(String keyid) {
+		if (unknown.getIfPresent(keyid) != null) {
+			return null;
+		}
+
+		Optional<HttpVerify> verifier;
+		try {
+			verifier = verifiers.getUnchecked(keyid);
+		} catch (UncheckedExecutionException e) {
+			// the load failed, so don't remember anything about this key
+			log.warn("Could not resolve key " + keyid, e.getCause());
+			return null;
+		}
+
+		if (verifier.isPresent()) {
+			return verifier.get();
+		} else {
+			// move it over to the unknown keys so it gets the negative expiration
+			unknown.put(keyid, Boolean.TRUE);
+			verifiers.invalidate(keyid);
+			return null;
+		}
+	}
+
+	/**
+	 * Drop everything that's been cached about this key.
+	 */
+	public void invalidate(String keyid) {
+		verifiers.invalidate(keyid);
+		unknown.invalidate(keyid);
+	}
+
+	/**
+	 * Drop everything that's been cached.
+	 */
+	public void invalidateAll() {
+		verifiers.invalidateAll();
+		unknown.invalidateAll();
+	}
+
+}
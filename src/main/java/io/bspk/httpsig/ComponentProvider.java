@@ -1,7 +1,6 @@
 package io.bspk.httpsig;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.greenbytes.http.sfv.Dictionary;
 import org.greenbytes.http.sfv.Item;
@@ -9,9 +8,6 @@ import org.greenbytes.http.sfv.ListElement;
 import org.greenbytes.http.sfv.ParseException;
 import org.greenbytes.http.sfv.Parser;
 import org.greenbytes.http.sfv.StringItem;
-import org.greenbytes.http.sfv.Type;
-
-import com.google.common.base.Strings;
 
 /**
  * @author jricher
@@ -35,19 +31,127 @@ public interface ComponentProvider {
 	// fields
 	String getField(String name);
 
+	/**
+	 * @return the registry used to find the type of structured fields, the shared default unless overridden
+	 */
+	default StructuredFieldRegistry getStructuredFieldRegistry() {
+		return StructuredFieldRegistry.getDefault();
+	}
+
+	/**
+	 * Combine the values of a repeated field: each value is trimmed, any obs-fold
+	 * is replaced with a single space, and the values are joined with ", ".
+	 *
+	 * @return the combined value, or null if there are no values or they're all empty
+	 */
 	static String combineFieldValues(List<String> fields) {
 		if (fields == null) {
 			return null;
+		}
+
+		int size = fields.size();
+		if (size == 1) {
+			// fast path, most fields have a single value that needs no changes
+			String value = fields.get(0);
+			int len = value.length();
+			if (len == 0) {
+				return null;
+			} else if (!Character.isWhitespace(value.charAt(0))
+				&& !Character.isWhitespace(value.charAt(len - 1))
+				&& value.indexOf('\r') < 0) {
+				return value;
+			}
+		}
+
+		int capacity = 0;
+		for (int i = 0; i < size; i++) {
+			capacity += fields.get(i).length() + 2;
+		}
+
+		StringBuilder combined = new StringBuilder(capacity);
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				combined.append(", ");
+			}
+			appendFieldValue(fields.get(i), combined);
+		}
+
+		if (combined.length() == 0) {
+			return null;
 		} else {
-			String val = fields.stream()
-				.map(String::strip)
-                .map(v -> {
-                    // replace obs-fold if it's in there
-                    return v.replaceAll("[\\s\\t]*\\r\\n[\\s\\t]*", " ");
-                })
-				.collect(Collectors.joining(", "));
-
-			return Strings.emptyToNull(val);
+			return combined.toString();
+		}
+	}
+
+	/**
+	 * Append the trimmed value, replacing each run of whitespace that contains a
+	 * CRLF (obs-fold) with a single space.
+	 */
+	private static void appendFieldValue(String value, StringBuilder out) {
+		int start = 0;
+		int end = value.length();
+		while (start < end && Character.isWhitespace(value.charAt(start))) {
+			start++;
+		}
+		while (end > start && Character.isWhitespace(value.charAt(end - 1))) {
+			end--;
+		}
+
+		int copied = start;
+		int i = start;
+		while (i < end) {
+			if (value.charAt(i) == '\r' && i + 1 < end && value.charAt(i + 1) == '\n') {
+				// replace the whole run of whitespace around the fold
+				int runStart = i;
+				while (runStart > copied && isFoldWhitespace(value.charAt(runStart - 1))) {
+					runStart--;
+				}
+				int runEnd = i + 2;
+				while (runEnd < end && isFoldWhitespace(value.charAt(runEnd))) {
+					runEnd++;
+				}
+				out.append(value, copied, runStart).append(' ');
+				copied = runEnd;
+				i = runEnd;
+			} else {
+				i++;
+			}
+		}
+		out.append(value, copied, end);
+	}
+
+	private static boolean isFoldWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\013' || c == '\f' || c == '\r';
+	}
+
+	/**
+	 * Parse the field value as a dictionary and return the re-serialized value of the given member.
+	 */
+	static String getDictionaryMember(String fieldName, String key, String fieldValue) {
+		try {
+			Dictionary dictionary = Parser.parseDictionary(fieldValue);
+			if (dictionary.get().containsKey(key)) {
+
+				ListElement<? extends Object> dictionaryValue = dictionary.get().get(key);
+
+				// we always re-serialize the value
+				return dictionaryValue.serialize();
+			} else {
+				throw new IllegalArgumentException("Value for '" + key + "' key of dictionary " + fieldName + " does not exist");
+			}
+		} catch (ParseException e) {
+			throw new IllegalArgumentException("Field " + fieldName + " is not a dictionary field");
+		}
+	}
+
+	/**
+	 * Parse the field value as the given type of structured field and return its canonical serialization.
+	 */
+	static String serializeStructuredField(String fieldName, StructuredFieldType type, String fieldValue) {
+		try {
+			return type.serialize(fieldValue);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException("Field " + fieldName + " is not a structured field");
 		}
 	}
 
@@ -93,124 +197,16 @@ public interface ComponentProvider {
 			if (componentIdentifier.getParams().containsKey("key")) {
 				Item<? extends Object> keyParameter = componentIdentifier.getParams().get("key");
 				if (keyParameter instanceof StringItem) {
-					try {
-						String fieldValue = getField(baseIdentifier);
-						Dictionary dictionary = Parser.parseDictionary(fieldValue);
-						String key = ((StringItem)keyParameter).get();
-						if (dictionary.get().containsKey(key)) {
-
-							ListElement<? extends Object> dictionaryValue = dictionary.get().get(key);
-
-							// we always re-serialize the value
-							return dictionaryValue.serialize();
-						} else {
-							throw new IllegalArgumentException("Value for '" + key + "' key of dictionary " + baseIdentifier + " does not exist");
-						}
-					} catch (ParseException e) {
-						throw new IllegalArgumentException("Field " + baseIdentifier + " is not a dictionary field");
-					}
+					return getDictionaryMember(baseIdentifier, ((StringItem)keyParameter).get(), getField(baseIdentifier));
 				} else {
 					throw new IllegalArgumentException("Invalid Syntax: Value for 'key' parameter of field " + baseIdentifier + " must be a StringItem");
 				}
 			} else if (componentIdentifier.getParams().containsKey("sf")) {
-				switch (baseIdentifier) {
-				    case "accept":
-				    case "accept-encoding":
-				    case "accept-language":
-				    case "accept-patch":
-				    case "accept-ranges":
-				    case "access-control-allow-headers":
-				    case "access-control-allow-methods":
-				    case "access-control-expose-headers":
-				    case "access-control-request-headers":
-				    case "allow":
-				    case "alpn":
-				    case "connection":
-				    case "content-encoding":
-				    case "content-language":
-				    case "content-length":
-				    case "te":
-				    case "timing-allow-origin":
-				    case "trailer":
-				    case "transfer-encoding":
-				    case "vary":
-				    case "x-xss-protection":
-				    case "cache-status":
-				    case "proxy-status":
-				    case "variant-key":
-				    case "x-list":
-				    case "x-list-a":
-				    case "x-list-b":
-				    case "accept-ch":
-				    case "example-list":
-				    {
-				    	// List
-				    	try {
-					    	String fieldValue = getField(baseIdentifier);
-					    	Type<?> sf = Parser.parseList(fieldValue);
-					    	return sf.serialize();
-						} catch (ParseException e) {
-							throw new IllegalArgumentException("Field " + baseIdentifier + " is not a structured field");
-						}
-				    }
-				    case "alt-svc":
-				    case "cache-control":
-				    case "expect-ct":
-				    case "keep-alive":
-				    case "pragma":
-				    case "prefer":
-				    case "preference-applied":
-				    case "surrogate-control":
-				    case "variants":
-				    case "signature":
-				    case "signature-input":
-				    case "priority":
-				    case "x-dictionary":
-				    case "example-dict":
-				    case "cdn-cache-control":
-				    {
-				    	// Dictionary
-				    	try {
-					    	String fieldValue = getField(baseIdentifier);
-					    	Type<?> sf = Parser.parseDictionary(fieldValue);
-					    	return sf.serialize();
-						} catch (ParseException e) {
-							throw new IllegalArgumentException("Field " + baseIdentifier + " is not a structured field");
-						}
-				    }
-				    case "access-control-max-age":
-				    case "access-control-allow-credentials":
-				    case "access-control-allow-origin":
-				    case "access-control-request-method":
-				    case "age":
-				    case "alt-used":
-				    case "content-type":
-				    case "cross-origin-resource-policy":
-				    case "expect":
-				    case "host":
-				    case "origin":
-				    case "retry-after":
-				    case "x-content-type-options":
-				    case "x-frame-options":
-				    case "example-integer":
-				    case "example-decimal":
-				    case "example-string":
-				    case "example-token":
-				    case "example-bytesequence":
-				    case "example-boolean":
-				    {
-				    	// Item
-				    	try {
-					    	String fieldValue = getField(baseIdentifier);
-					    	Type<?> sf = Parser.parseItem(fieldValue);
-					    	return sf.serialize();
-						} catch (ParseException e) {
-							throw new IllegalArgumentException("Field " + baseIdentifier + " is not a structured field");
-						}
-				    }
-				    default:
-				    	throw new IllegalArgumentException("Field " + baseIdentifier + " is not a structured field");
-
+				StructuredFieldType type = getStructuredFieldRegistry().get(baseIdentifier);
+				if (type != null) {
+					return serializeStructuredField(baseIdentifier, type, getField(baseIdentifier));
+				} else {
+					throw new IllegalArgumentException("Field " + baseIdentifier + " is not a structured field");
 				}
 			} else {
 				return getField(baseIdentifier);
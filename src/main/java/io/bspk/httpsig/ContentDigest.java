@@ -0,0 +1,54 @@
+package io.bspk.httpsig;
+
+import java.security.MessageDigest;
+import java.util.function.Supplier;
+
+import org.bouncycastle.jcajce.provider.digest.SHA256;
+import org.bouncycastle.jcajce.provider.digest.SHA512;
+import org.greenbytes.http.sfv.ByteSequenceItem;
+
+/**
+ * Digest algorithms for the Content-Digest field (RFC 9530), so that the body
+ * of an outgoing message can be covered by its signature.
+ *
+ * @author jricher
+ *
+ */
+public class ContentDigest {
+
+	public static final String FIELD_NAME = "Content-Digest";
+
+	public static final ContentDigest SHA_256 = new ContentDigest("sha-256", SHA256.Digest::new);
+	public static final ContentDigest SHA_512 = new ContentDigest("sha-512", SHA512.Digest::new);
+
+	private final String algorithm;
+	private final Supplier<MessageDigest> digests;
+
+	private ContentDigest(String algorithm, Supplier<MessageDigest> digests) {
+		this.algorithm = algorithm;
+		this.digests = digests;
+	}
+
+	/**
+	 * @return the algorithm name as used in the field, like "sha-256"
+	 */
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * @return the digest of the content bytes
+	 */
+	public byte[] digest(byte[] content) {
+		// the BouncyCastle digests are cheap to create and don't need a provider lookup
+		return digests.get().digest(content == null ? new byte[0] : content);
+	}
+
+	/**
+	 * @return the Content-Digest field value for the content bytes, like "sha-256=:...:"
+	 */
+	public String createFieldValue(byte[] content) {
+		return algorithm + "=" + ByteSequenceItem.valueOf(digest(content)).serialize();
+	}
+
+}
@@ -2,6 +2,9 @@ package io.bspk.httpsig;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyType;
 
 /**
  * Signature algorithms.
@@ -48,6 +51,31 @@ public class HttpSigAlgorithm {
 		}
 	}
 
+	/**
+	 * Pick the algorithm to use with a key when none is given. Keys that declare
+	 * their own JOSE algorithm use {@link #JOSE}. Otherwise it goes by key type,
+	 * with RSA keys using {@link #RSAPSS}.
+	 *
+	 * @return the algorithm, or null if there isn't one for this kind of key
+	 */
+	public static HttpSigAlgorithm forKey(JWK key) {
+		if (key.getAlgorithm() != null) {
+			return JOSE;
+		} else if (key.getKeyType().equals(KeyType.RSA)) {
+			return RSAPSS;
+		} else if (key.getKeyType().equals(KeyType.EC)
+			&& Curve.P_256.equals(key.toECKey().getCurve())) {
+			return ECDSA;
+		} else if (key.getKeyType().equals(KeyType.OKP)
+			&& Curve.Ed25519.equals(key.toOctetKeyPair().getCurve())) {
+			return ED25519;
+		} else if (key.getKeyType().equals(KeyType.OCT)) {
+			return HMAC;
+		} else {
+			return null;
+		}
+	}
+
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj) {
@@ -0,0 +1,103 @@
+package io.bspk.httpsig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs signing, verification and signature base building on a caller-supplied
+ * executor and hands back a {@link CompletableFuture}, so that the crypto can be
+ * kept off of I/O threads.
+ *
+ * At most {@code maxConcurrency} operations are queued or running at once. When
+ * that limit is reached, new operations are not queued; the returned future
+ * fails right away with a {@link RejectedExecutionException}, which callers can
+ * use as a backpressure signal.
+ *
+ * The results are the same as the synchronous calls: a failed signature is
+ * {@code null} and a failed verification is {@code false}.
+ *
+ * @author jricher
+ *
+ */
+public class HttpSigExecutor {
+
+	private final Executor executor;
+	private final int maxConcurrency;
+	private final Semaphore permits;
+
+	public HttpSigExecutor(Executor executor, int maxConcurrency) {
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException("Max concurrency must be at least 1");
+		}
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+		this.permits = new Semaphore(maxConcurrency);
+	}
+
+	public CompletableFuture<byte[]> sign(HttpSign signer, SignatureBaseWriter base) {
+		return submit(() -> signer.sign(base));
+	}
+
+	public CompletableFuture<byte[]> sign(HttpSign signer, SignatureParameters sigParams, ComponentProvider ctx) {
+		return sign(signer, new SignatureBaseBuilder(sigParams, ctx));
+	}
+
+	public CompletableFuture<Boolean> verify(HttpVerify verifier, SignatureBaseWriter base, byte[] signature) {
+		return submit(() -> verifier.verify(base, signature));
+	}
+
+	public CompletableFuture<Boolean> verify(HttpVerify verifier, SignatureParameters sigParams, ComponentProvider ctx, byte[] signature) {
+		return verify(verifier, new SignatureBaseBuilder(sigParams, ctx), signature);
+	}
+
+	public CompletableFuture<byte[]> createSignatureBase(SignatureParameters sigParams, ComponentProvider ctx) {
+		SignatureBaseBuilder builder = new SignatureBaseBuilder(sigParams, ctx);
+		return submit(builder::createSignatureBase);
+	}
+
+	/**
+	 * @return the number of operations currently queued or running
+	 */
+	public int getInFlight() {
+		return maxConcurrency - permits.availablePermits();
+	}
+
+	/**
+	 * @return the maxConcurrency
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+		if (!permits.tryAcquire()) {
+			return CompletableFuture.failedFuture(
+				new RejectedExecutionException("Too many signature operations in flight: " + maxConcurrency));
+		}
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				// give the permit back before completing, since dependent stages can run on this thread
+				T result;
+				try {
+					result = operation.get();
+				} catch (Throwable t) {
+					permits.release();
+					future.completeExceptionally(t);
+					return;
+				}
+				permits.release();
+				future.complete(result);
+			});
+		} catch (RejectedExecutionException e) {
+			permits.release();
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+}
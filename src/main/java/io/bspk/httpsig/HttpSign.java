@@ -1,18 +1,19 @@
 package io.bspk.httpsig;
 
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.Signature;
-import java.security.SignatureException;
 import java.security.spec.MGF1ParameterSpec;
 import java.security.spec.PSSParameterSpec;
 
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 
+import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
 import org.bouncycastle.jcajce.provider.digest.SHA256;
 import org.bouncycastle.jcajce.provider.digest.SHA512;
 import org.slf4j.Logger;
@@ -24,6 +25,7 @@ import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSSigner;
 import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
 import com.nimbusds.jose.crypto.impl.ECDSA;
+import com.nimbusds.jose.jwk.Curve;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.KeyType;
 import com.nimbusds.jose.util.Base64URL;
@@ -37,86 +39,186 @@ public class HttpSign {
 	private static final Logger log = LoggerFactory.getLogger(HttpSign.class);
 
 
-	private HttpSigAlgorithm alg;
-	private JWK signingKey; // TODO: other key formats?
+	private final HttpSigAlgorithm alg;
+	private final JWK signingKey; // TODO: other key formats?
+
+	// the key is converted and the algorithm is picked once, when this object is created
+	private final Signer signer;
 
 	public HttpSign(HttpSigAlgorithm alg, JWK signingKey) {
 		this.alg = alg;
 		this.signingKey = signingKey;
+		this.signer = createSigner(alg, signingKey);
 	}
 
 	public byte[] sign(byte[] base) {
+		return sign(out -> out.write(base));
+	}
+
+	/**
+	 * Sign a signature base that is written straight into the crypto engine,
+	 * such as a {@link SignatureBaseBuilder}, without creating the whole base in memory.
+	 */
+	public byte[] sign(SignatureBaseWriter base) {
+		try {
+			return signer.sign(base);
+		} catch (GeneralSecurityException | JOSEException | IOException e) {
+			log.warn("Could not sign input", e);
+		}
+		return null;
+	}
+
+	/**
+	 * @return the alg
+	 */
+	public HttpSigAlgorithm getAlg() {
+		return alg;
+	}
+
+	/**
+	 * @return the signingKey
+	 */
+	public JWK getSigningKey() {
+		return signingKey;
+	}
+
+	private static Signer createSigner(HttpSigAlgorithm alg, JWK signingKey) {
 		try {
 			if (alg.equals(HttpSigAlgorithm.RSAPSS)) {
 				if (signingKey.getKeyType().equals(KeyType.RSA)) {
 					PrivateKey privateKey = signingKey.toRSAKey().toPrivateKey();
 
-					Signature signer = Signature.getInstance("RSASSA-PSS");
-					signer.setParameter(
-						new PSSParameterSpec("SHA-512", "MGF1", MGF1ParameterSpec.SHA512, 64, 1));
-
-					MessageDigest sha = new SHA512.Digest();
-					byte[] hash = sha.digest(base);
-
-					signer.initSign(privateKey);
-					signer.update(hash);
-					byte[] s = signer.sign();
-					return s;
+					PrimitivePool<MessageDigest> digests = new PrimitivePool<>(SHA512.Digest::new);
+					PrimitivePool<Signature> signers = new PrimitivePool<>(() -> {
+						Signature signer = Signature.getInstance("RSASSA-PSS");
+						signer.setParameter(
+							new PSSParameterSpec("SHA-512", "MGF1", MGF1ParameterSpec.SHA512, 64, 1));
+						signer.initSign(privateKey);
+						return signer;
+					});
+
+					return base -> {
+						byte[] hash = digests.apply(sha -> digest(sha, base));
+
+						return signers.apply(signer -> {
+							signer.update(hash);
+							return signer.sign();
+						});
+					};
 				}
 			} else if (alg.equals(HttpSigAlgorithm.RSA15)) {
 				if (signingKey.getKeyType().equals(KeyType.RSA)) {
 					PrivateKey privateKey = signingKey.toRSAKey().toPrivateKey();
 
-					Signature signer = Signature.getInstance("SHA256withRSA");
-
-					MessageDigest sha = new SHA256.Digest();
-					byte[] hash = sha.digest(base);
-
-					signer.initSign(privateKey);
-					signer.update(hash);
-					byte[] s = signer.sign();
-					return s;
+					PrimitivePool<MessageDigest> digests = new PrimitivePool<>(SHA256.Digest::new);
+					PrimitivePool<Signature> signers = new PrimitivePool<>(() -> {
+						Signature signer = Signature.getInstance("SHA256withRSA");
+						signer.initSign(privateKey);
+						return signer;
+					});
+
+					return base -> {
+						byte[] hash = digests.apply(sha -> digest(sha, base));
+
+						return signers.apply(signer -> {
+							signer.update(hash);
+							return signer.sign();
+						});
+					};
 				}
 			} else if (alg.equals(HttpSigAlgorithm.HMAC)) {
 				if (signingKey.getKeyType().equals(KeyType.OCT)) {
 					SecretKey secretKey = signingKey.toOctetSequenceKey().toSecretKey();
 
-					Mac mac = Mac.getInstance("HmacSHA256");
-					mac.init(secretKey);
-					mac.update(base);
-					byte[] s = mac.doFinal();
-					return s;
+					PrimitivePool<Mac> macs = new PrimitivePool<>(() -> {
+						Mac mac = Mac.getInstance("HmacSHA256");
+						mac.init(secretKey);
+						return mac;
+					});
+
+					return base -> macs.apply(mac -> {
+						base.writeSignatureBase(new UpdateOutputStream(mac::update));
+						return mac.doFinal();
+					});
 				}
 			} else if (alg.equals(HttpSigAlgorithm.ECDSA)) {
 				if (signingKey.getKeyType().equals(KeyType.EC)) {
 					PrivateKey privateKey = signingKey.toECKey().toPrivateKey();
 
-					Signature signer = Signature.getInstance("SHA256withECDSA");
-
-					MessageDigest sha = new SHA256.Digest();
-					byte[] hash = sha.digest(base);
-
-					signer.initSign(privateKey);
-					signer.update(hash);
-					byte[] rs = signer.sign();
-					byte[] s = ECDSA.transcodeSignatureToConcat(rs, 64);
-					return s;
+					PrimitivePool<MessageDigest> digests = new PrimitivePool<>(SHA256.Digest::new);
+					PrimitivePool<Signature> signers = new PrimitivePool<>(() -> {
+						Signature signer = Signature.getInstance("SHA256withECDSA");
+						signer.initSign(privateKey);
+						return signer;
+					});
+
+					return base -> {
+						byte[] hash = digests.apply(sha -> digest(sha, base));
+
+						byte[] rs = signers.apply(signer -> {
+							signer.update(hash);
+							return signer.sign();
+						});
+						return ECDSA.transcodeSignatureToConcat(rs, 64);
+					};
+				}
+			} else if (alg.equals(HttpSigAlgorithm.ED25519)) {
+				if (signingKey.getKeyType().equals(KeyType.OKP)
+					&& signingKey.toOctetKeyPair().getCurve().equals(Curve.Ed25519)
+					&& signingKey.isPrivate()) {
+					Ed25519PrivateKeyParameters privateKey =
+						new Ed25519PrivateKeyParameters(signingKey.toOctetKeyPair().getDecodedD(), 0);
+
+					PrimitivePool<Ed25519Signer> signers = new PrimitivePool<>(() -> {
+						Ed25519Signer signer = new Ed25519Signer();
+						signer.init(true, privateKey);
+						return signer;
+					});
+
+					// EdDSA signs the base itself, not a hash of it
+					return base -> signers.apply(signer -> {
+						base.writeSignatureBase(new UpdateOutputStream(signer::update));
+						return signer.generateSignature();
+					});
 				}
 			} else if (alg.equals(HttpSigAlgorithm.JOSE)) {
-				// do a JOSE signature based on what's in the key
-				JWSSigner signer = new DefaultJWSSignerFactory().createJWSSigner(signingKey);
-
-				// create a fake header
-				JWSAlgorithm alg = new JWSAlgorithm(signingKey.getAlgorithm().getName());
-				JWSHeader header = new JWSHeader.Builder(alg).build();
-
-				Base64URL s = signer.sign(header, base);
-				return s.decode();
+				if (signingKey.getAlgorithm() != null) {
+					// create a fake header
+					JWSAlgorithm jwsAlg = new JWSAlgorithm(signingKey.getAlgorithm().getName());
+					JWSHeader header = new JWSHeader.Builder(jwsAlg).build();
+
+					// do a JOSE signature based on what's in the key, the Nimbus signers are thread safe
+					JWSSigner signer = new DefaultJWSSignerFactory().createJWSSigner(signingKey, jwsAlg);
+
+					return base -> {
+						// the JOSE signers need the whole input at once
+						ByteArrayOutputStream input = new ByteArrayOutputStream();
+						base.writeSignatureBase(input);
+
+						Base64URL s = signer.sign(header, input.toByteArray());
+						return s.decode();
+					};
+				}
 			}
-		} catch (InvalidKeyException | NoSuchAlgorithmException | InvalidAlgorithmParameterException | SignatureException | JOSEException e) {
-			log.warn("Could not sign input", e);
+		} catch (JOSEException | GeneralSecurityException e) {
+			log.warn("Could not load signing key", e);
+			return UNSUPPORTED;
 		}
-		return null;
+
+		log.warn("Unsupported key type {} for algorithm {}", signingKey.getKeyType(), alg.getExplicitAlg());
+		return UNSUPPORTED;
+	}
+
+	private static byte[] digest(MessageDigest sha, SignatureBaseWriter base) throws IOException {
+		base.writeSignatureBase(new UpdateOutputStream(sha::update));
+		return sha.digest();
+	}
+
+	private static final Signer UNSUPPORTED = base -> null;
+
+	@FunctionalInterface
+	private interface Signer {
+		byte[] sign(SignatureBaseWriter base) throws GeneralSecurityException, JOSEException, IOException;
 	}
 
 }
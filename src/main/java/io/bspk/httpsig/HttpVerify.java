@@ -1,20 +1,20 @@
 package io.bspk.httpsig;
 
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
-import java.security.SignatureException;
 import java.security.spec.MGF1ParameterSpec;
 import java.security.spec.PSSParameterSpec;
-import java.util.Arrays;
 
 import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 
+import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
 import org.bouncycastle.jcajce.provider.digest.SHA256;
 import org.bouncycastle.jcajce.provider.digest.SHA512;
 import org.slf4j.Logger;
@@ -26,6 +26,7 @@ import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
 import com.nimbusds.jose.crypto.impl.ECDSA;
+import com.nimbusds.jose.jwk.Curve;
 import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.KeyType;
@@ -41,98 +42,200 @@ public class HttpVerify {
 
 	private static final Logger log = LoggerFactory.getLogger(HttpVerify.class);
 
-	private HttpSigAlgorithm alg;
-	private JWK verifyKey; // TODO: other key formats?
+	private final HttpSigAlgorithm alg;
+	private final JWK verifyKey; // TODO: other key formats?
+
+	// the key is converted and the algorithm is picked once, when this object is created
+	private final Verifier verifier;
 
 	public HttpVerify(HttpSigAlgorithm alg, JWK verifyKey) {
 		this.alg = alg;
 		this.verifyKey = verifyKey;
+		this.verifier = createVerifier(alg, verifyKey);
 	}
 
 	public boolean verify(byte[] base, byte[] signature) {
+		return verify(out -> out.write(base), signature);
+	}
+
+	/**
+	 * Verify a signature base that is written straight into the crypto engine,
+	 * such as a {@link SignatureBaseBuilder}, without creating the whole base in memory.
+	 */
+	public boolean verify(SignatureBaseWriter base, byte[] signature) {
+		try {
+			return verifier.verify(base, signature);
+		} catch (GeneralSecurityException | JOSEException | IOException e) {
+			log.warn("Could not verify input", e);
+		}
+		return false;
+	}
+
+	/**
+	 * @return the alg
+	 */
+	public HttpSigAlgorithm getAlg() {
+		return alg;
+	}
+
+	/**
+	 * @return the verifyKey
+	 */
+	public JWK getVerifyKey() {
+		return verifyKey;
+	}
+
+	private static Verifier createVerifier(HttpSigAlgorithm alg, JWK verifyKey) {
 		try {
 			if (alg.equals(HttpSigAlgorithm.RSAPSS)) {
 				if (verifyKey.getKeyType().equals(KeyType.RSA)) {
 					PublicKey publicKey = verifyKey.toRSAKey().toPublicKey();
 
-					Signature verifier = Signature.getInstance("RSASSA-PSS");
-					verifier.setParameter(
-						new PSSParameterSpec("SHA-512", "MGF1", MGF1ParameterSpec.SHA512, 64, 1));
-
-					MessageDigest sha = new SHA512.Digest();
-					byte[] hash = sha.digest(base);
-
-					verifier.initVerify(publicKey);
-					verifier.update(hash);
-					return verifier.verify(signature);
+					PrimitivePool<MessageDigest> digests = new PrimitivePool<>(SHA512.Digest::new);
+					PrimitivePool<Signature> verifiers = new PrimitivePool<>(() -> {
+						Signature verifier = Signature.getInstance("RSASSA-PSS");
+						verifier.setParameter(
+							new PSSParameterSpec("SHA-512", "MGF1", MGF1ParameterSpec.SHA512, 64, 1));
+						verifier.initVerify(publicKey);
+						return verifier;
+					});
+
+					return (base, signature) -> {
+						byte[] hash = digests.apply(sha -> digest(sha, base));
+
+						return verifiers.apply(verifier -> {
+							verifier.update(hash);
+							return verifier.verify(signature);
+						});
+					};
 				}
 			} else if (alg.equals(HttpSigAlgorithm.RSA15)) {
 				if (verifyKey.getKeyType().equals(KeyType.RSA)) {
 					PublicKey publicKey = verifyKey.toRSAKey().toPublicKey();
 
-					Signature verifier = Signature.getInstance("SHA256withRSA");
-
-					MessageDigest sha = new SHA256.Digest();
-					byte[] hash = sha.digest(base);
-
-					verifier.initVerify(publicKey);
-					verifier.update(hash);
-					return verifier.verify(signature);
+					PrimitivePool<MessageDigest> digests = new PrimitivePool<>(SHA256.Digest::new);
+					PrimitivePool<Signature> verifiers = new PrimitivePool<>(() -> {
+						Signature verifier = Signature.getInstance("SHA256withRSA");
+						verifier.initVerify(publicKey);
+						return verifier;
+					});
+
+					return (base, signature) -> {
+						byte[] hash = digests.apply(sha -> digest(sha, base));
+
+						return verifiers.apply(verifier -> {
+							verifier.update(hash);
+							return verifier.verify(signature);
+						});
+					};
 				}
 			} else if (alg.equals(HttpSigAlgorithm.HMAC)) {
 				if (verifyKey.getKeyType().equals(KeyType.OCT)) {
 					SecretKey secretKey = verifyKey.toOctetSequenceKey().toSecretKey();
 
-					Mac mac = Mac.getInstance("HmacSHA256");
-					mac.init(secretKey);
-					mac.update(base);
-					byte[] s = mac.doFinal();
+					PrimitivePool<Mac> macs = new PrimitivePool<>(() -> {
+						Mac mac = Mac.getInstance("HmacSHA256");
+						mac.init(secretKey);
+						return mac;
+					});
 
-					return Arrays.equals(s, signature);
+					return (base, signature) -> {
+						byte[] s = macs.apply(mac -> {
+							base.writeSignatureBase(new UpdateOutputStream(mac::update));
+							return mac.doFinal();
+						});
+
+						return MessageDigest.isEqual(s, signature);
+					};
 				}
 			} else if (alg.equals(HttpSigAlgorithm.ECDSA)) {
 				if (verifyKey.getKeyType().equals(KeyType.EC)) {
 					PublicKey publicKey = verifyKey.toECKey().toPublicKey();
 
-					Signature verifier = Signature.getInstance("SHA256withECDSA");
-
-					MessageDigest sha = new SHA256.Digest();
-					byte[] hash = sha.digest(base);
-
-					verifier.initVerify(publicKey);
-					verifier.update(hash);
-
-					byte[] s = ECDSA.transcodeSignatureToDER(signature);
-					return verifier.verify(s);
+					PrimitivePool<MessageDigest> digests = new PrimitivePool<>(SHA256.Digest::new);
+					PrimitivePool<Signature> verifiers = new PrimitivePool<>(() -> {
+						Signature verifier = Signature.getInstance("SHA256withECDSA");
+						verifier.initVerify(publicKey);
+						return verifier;
+					});
+
+					return (base, signature) -> {
+						byte[] hash = digests.apply(sha -> digest(sha, base));
+						byte[] s = ECDSA.transcodeSignatureToDER(signature);
+
+						return verifiers.apply(verifier -> {
+							verifier.update(hash);
+							return verifier.verify(s);
+						});
+					};
+				}
+			} else if (alg.equals(HttpSigAlgorithm.ED25519)) {
+				if (verifyKey.getKeyType().equals(KeyType.OKP)
+					&& verifyKey.toOctetKeyPair().getCurve().equals(Curve.Ed25519)) {
+					Ed25519PublicKeyParameters publicKey =
+						new Ed25519PublicKeyParameters(verifyKey.toOctetKeyPair().getDecodedX(), 0);
+
+					PrimitivePool<Ed25519Signer> verifiers = new PrimitivePool<>(() -> {
+						Ed25519Signer verifier = new Ed25519Signer();
+						verifier.init(false, publicKey);
+						return verifier;
+					});
+
+					// EdDSA verifies the base itself, not a hash of it
+					return (base, signature) -> verifiers.apply(verifier -> {
+						base.writeSignatureBase(new UpdateOutputStream(verifier::update));
+						return verifier.verifySignature(signature);
+					});
 				}
 			} else if (alg.equals(HttpSigAlgorithm.JOSE)) {
-				// create a fake header
-				JWSAlgorithm alg = new JWSAlgorithm(verifyKey.getAlgorithm().getName());
-				JWSHeader header = new JWSHeader.Builder(alg).build();
-
-				Key key = null;
-				if (verifyKey instanceof OctetSequenceKey) {
-					key = verifyKey.toOctetSequenceKey().toSecretKey();
-				} else if (verifyKey instanceof RSAKey) {
-					key = verifyKey.toRSAKey().toPublicKey();
-				} else if (verifyKey instanceof ECKey) {
-					key = verifyKey.toECKey().toPublicKey();
-				} else {
-					log.warn("Unknown key type: " + verifyKey);
-					return false;
+				if (verifyKey.getAlgorithm() != null) {
+					// create a fake header
+					JWSAlgorithm jwsAlg = new JWSAlgorithm(verifyKey.getAlgorithm().getName());
+					JWSHeader header = new JWSHeader.Builder(jwsAlg).build();
+
+					Key key = null;
+					if (verifyKey instanceof OctetSequenceKey) {
+						key = verifyKey.toOctetSequenceKey().toSecretKey();
+					} else if (verifyKey instanceof RSAKey) {
+						key = verifyKey.toRSAKey().toPublicKey();
+					} else if (verifyKey instanceof ECKey) {
+						key = verifyKey.toECKey().toPublicKey();
+					} else {
+						log.warn("Unknown key type: " + verifyKey);
+						return UNSUPPORTED;
+					}
+
+					// do a JOSE verification based on what's in the key, the Nimbus verifiers are thread safe
+					JWSVerifier verifier = new DefaultJWSVerifierFactory().createJWSVerifier(header, key);
+
+					return (base, signature) -> {
+						// the JOSE verifiers need the whole input at once
+						ByteArrayOutputStream input = new ByteArrayOutputStream();
+						base.writeSignatureBase(input);
+
+						return verifier.verify(header, input.toByteArray(), Base64URL.encode(signature));
+					};
 				}
+			}
+		} catch (JOSEException | GeneralSecurityException e) {
+			log.warn("Could not load verification key", e);
+			return UNSUPPORTED;
+		}
 
+		log.warn("Unsupported key type {} for algorithm {}", verifyKey.getKeyType(), alg.getExplicitAlg());
+		return UNSUPPORTED;
+	}
 
-				// do a JOSE signature based on what's in the key
-				JWSVerifier verifier = new DefaultJWSVerifierFactory().createJWSVerifier(header, key);
+	private static byte[] digest(MessageDigest sha, SignatureBaseWriter base) throws IOException {
+		base.writeSignatureBase(new UpdateOutputStream(sha::update));
+		return sha.digest();
+	}
 
+	private static final Verifier UNSUPPORTED = (base, signature) -> false;
 
-				return verifier.verify(header, base, Base64URL.encode(signature));
-			}
-		} catch (InvalidKeyException | NoSuchAlgorithmException | InvalidAlgorithmParameterException | SignatureException | JOSEException e) {
-			log.warn("Could not sign input", e);
-		}
-		return false;
+	@FunctionalInterface
+	private interface Verifier {
+		boolean verify(SignatureBaseWriter base, byte[] signature) throws GeneralSecurityException, JOSEException, IOException;
 	}
 
 }
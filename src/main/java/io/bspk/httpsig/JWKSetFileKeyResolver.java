@@ -0,0 +1,85 @@
+package io.bspk.httpsig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+
+/**
+ * Resolves keys from a JWK Set stored in a local file. The file is read again
+ * when its modification time changes. Each key's algorithm comes from
+ * {@link HttpSigAlgorithm#forKey(JWK)}.
+ *
+ * This does no caching of verifiers itself, wrap it in a
+ * {@link CachingKeyResolver} for that.
+ *
+ * @author jricher
+ *
+ */
+public class JWKSetFileKeyResolver implements KeyResolver {
+
+	private final Path path;
+
+	private volatile Snapshot snapshot;
+
+	public JWKSetFileKeyResolver(Path path) {
+		this.path = path;
+	}
+
+	@Override
+	public HttpVerify resolve(String keyid) {
+		JWK key = getKeySet().getKeyByKeyId(keyid);
+		if (key == null) {
+			return null;
+		}
+
+		HttpSigAlgorithm alg = HttpSigAlgorithm.forKey(key);
+		if (alg == null) {
+			return null;
+		}
+
+		return new HttpVerify(alg, key);
+	}
+
+	/**
+	 * @return the current contents of the file
+	 */
+	public JWKSet getKeySet() {
+		try {
+			FileTime lastModified = Files.getLastModifiedTime(path);
+			Snapshot current = snapshot;
+			if (current == null || !current.lastModified.equals(lastModified)) {
+				current = new Snapshot(JWKSet.load(path.toFile()), lastModified);
+				snapshot = current;
+			}
+			return current.keySet;
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not read key set " + path, e);
+		} catch (ParseException e) {
+			throw new IllegalArgumentException("Could not parse key set " + path, e);
+		}
+	}
+
+	/**
+	 * @return the path
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	private static class Snapshot {
+		private final JWKSet keySet;
+		private final FileTime lastModified;
+
+		private Snapshot(JWKSet keySet, FileTime lastModified) {
+			this.keySet = keySet;
+			this.lastModified = lastModified;
+		}
+	}
+
+}
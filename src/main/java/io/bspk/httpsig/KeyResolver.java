@@ -0,0 +1,66 @@
+package io.bspk.httpsig;
+
+import org.slf4j.Logger;
+
+/**
+ * Looks up a prepared verifier for the key named by a signature's {@code keyid}
+ * parameter.
+ *
+ * @author jricher
+ *
+ */
+@FunctionalInterface
+public interface KeyResolver {
+
+	/**
+	 * @return the verifier for this key, or null if the key is not known
+	 */
+	HttpVerify resolve(String keyid);
+
+	/**
+	 * Find the verifier for the key named in the signature parameters. If the
+	 * parameters include an {@code alg}, it has to match the algorithm of the
+	 * resolved verifier.
+	 *
+	 * @return the verifier, or null if there's no keyid, the key is not known, or the algorithm doesn't match
+	 */
+	default HttpVerify resolve(SignatureParameters sigParams) {
+		Logger log = KeyResolverLog.log;
+
+		String keyid = sigParams.getKeyid();
+		if (keyid == null) {
+			log.warn("Signature parameters don't include a keyid");
+			return null;
+		}
+
+		HttpVerify verifier = resolve(keyid);
+		if (verifier == null) {
+			log.warn("Unknown key: {}", keyid);
+			return null;
+		}
+
+		if (sigParams.getAlg() != null
+			&& !verifier.getAlg().equals(HttpSigAlgorithm.JOSE)
+			&& !verifier.getAlg().equals(sigParams.getAlg())) {
+			log.warn("Algorithm {} doesn't match key {}", sigParams.getAlg().getExplicitAlg(), keyid);
+			return null;
+		}
+
+		return verifier;
+	}
+
+	/**
+	 * Verify a signature using the key named in its parameters, as found by {@link #resolve(SignatureParameters)}.
+	 *
+	 * @return true if the key is known and the signature verifies
+	 */
+	default boolean verify(SignatureParameters sigParams, ComponentProvider ctx, byte[] signature) {
+		HttpVerify verifier = resolve(sigParams);
+		if (verifier == null) {
+			return false;
+		}
+
+		return verifier.verify(new SignatureBaseBuilder(sigParams, ctx), signature);
+	}
+
+}
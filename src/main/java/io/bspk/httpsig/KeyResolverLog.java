@@ -0,0 +1,20 @@
+package io.bspk.httpsig;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the logger for {@link KeyResolver}, since an interface can't have a
+ * private static field.
+ *
+ * @author jricher
+ *
+ */
+final class KeyResolverLog {
+
+	static final Logger log = LoggerFactory.getLogger(KeyResolver.class);
+
+	private KeyResolverLog() {
+	}
+
+}
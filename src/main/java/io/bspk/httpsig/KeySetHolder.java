@@ -0,0 +1,252 @@
+package io.bspk.httpsig;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+
+/**
+ * Holds the signers and verifiers for a JWK Set loaded from a local file, and
+ * swaps in a new set when the file changes.
+ *
+ * Every new key is prepared and warmed up with a few synthetic signatures and
+ * verifications before the new set is published, and the set is published with
+ * a single reference swap. Requests in flight keep using the set they started
+ * with, and never see a partially loaded set. Keys that haven't changed keep
+ * their existing, already warm, signers and verifiers. If the file can't be read
+ * or parsed, the current set stays in place.
+ *
+ * Call {@link #watch()} to reload automatically in the background whenever the
+ * file changes, and {@link #close()} to stop watching.
+ *
+ * @author jricher
+ *
+ */
+public class KeySetHolder implements KeyResolver, Closeable {
+
+	private static final Logger log = LoggerFactory.getLogger(KeySetHolder.class);
+
+	private static final int DEFAULT_WARMUP_ITERATIONS = 20;
+
+	private static final byte[] WARMUP_BASE = "\"@signature-params\": ();created=0".getBytes(StandardCharsets.UTF_8);
+
+	private final Path path;
+	private final int warmupIterations;
+
+	private volatile Keys keys = new Keys(new JWKSet(), Collections.emptyMap(), Collections.emptyMap());
+
+	private WatchService watchService;
+
+	/**
+	 * Load the key set from the file now.
+	 */
+	public KeySetHolder(Path path) throws IOException, ParseException {
+		this(path, DEFAULT_WARMUP_ITERATIONS);
+	}
+
+	/**
+	 * Load the key set from the file now, running the given number of synthetic
+	 * operations on each new key before it's published.
+	 */
+	public KeySetHolder(Path path, int warmupIterations) throws IOException, ParseException {
+		this.path = path.toAbsolutePath();
+		this.warmupIterations = warmupIterations;
+		reload();
+	}
+
+	@Override
+	public HttpVerify resolve(String keyid) {
+		return keys.verifiers.get(keyid);
+	}
+
+	/**
+	 * @return the signer for this key, or null if the key is unknown or has no private part
+	 */
+	public HttpSign getSigner(String keyid) {
+		return keys.signers.get(keyid);
+	}
+
+	/**
+	 * @return the currently published key set
+	 */
+	public JWKSet getKeySet() {
+		return keys.keySet;
+	}
+
+	/**
+	 * Read the file, prepare and warm up any new keys, and publish the result.
+	 */
+	public synchronized void reload() throws IOException, ParseException {
+		JWKSet keySet = JWKSet.load(path.toFile());
+		Keys previous = keys;
+
+		Map<String, HttpSign> signers = new HashMap<>();
+		Map<String, HttpVerify> verifiers = new HashMap<>();
+
+		for (JWK key : keySet.getKeys()) {
+			String keyid = key.getKeyID();
+			HttpSigAlgorithm alg = HttpSigAlgorithm.forKey(key);
+			if (keyid == null || alg == null) {
+				log.warn("Skipping key without a key ID or usable algorithm: {}", keyid);
+				continue;
+			}
+
+			HttpVerify verifier = previous.verifiers.get(keyid);
+			HttpSign signer = previous.signers.get(keyid);
+			if (verifier != null && verifier.getVerifyKey().equals(key)) {
+				// unchanged, and already warm
+				verifiers.put(keyid, verifier);
+				if (signer != null) {
+					signers.put(keyid, signer);
+				}
+				continue;
+			}
+
+			verifier = new HttpVerify(alg, key);
+			signer = key.isPrivate() ? new HttpSign(alg, key) : null;
+
+			if (warmUp(keyid, key, signer, verifier)) {
+				verifiers.put(keyid, verifier);
+				if (signer != null) {
+					signers.put(keyid, signer);
+				}
+			}
+		}
+
+		keys = new Keys(keySet, Collections.unmodifiableMap(signers), Collections.unmodifiableMap(verifiers));
+		log.info("Loaded {} keys from {}", verifiers.size(), path);
+	}
+
+	private boolean warmUp(String keyid, JWK key, HttpSign signer, HttpVerify verifier) {
+		// a well formed signature of the right size, so the public key operation
+		// runs all the way through and simply doesn't match
+		byte[] fakeSignature = new byte[signatureLength(key)];
+		Arrays.fill(fakeSignature, (byte) 0x01);
+
+		for (int i = 0; i < warmupIterations; i++) {
+			if (signer != null) {
+				byte[] signature = signer.sign(WARMUP_BASE);
+				if (signature == null || !verifier.verify(WARMUP_BASE, signature)) {
+					log.warn("Key {} failed its warm up, skipping it", keyid);
+					return false;
+				}
+			} else {
+				// no private key, so we can only exercise the failure path
+				verifier.verify(WARMUP_BASE, fakeSignature);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the size in bytes of a signature made with this key
+	 */
+	private static int signatureLength(JWK key) {
+		if (key instanceof RSAKey) {
+			// the size of the modulus
+			return (key.size() + 7) / 8;
+		} else if (key instanceof ECKey) {
+			// r and s, each the size of the curve's field
+			return 2 * ((key.size() + 7) / 8);
+		} else if (key instanceof OctetSequenceKey) {
+			// HMAC SHA-256
+			return 32;
+		} else {
+			// Ed25519
+			return 64;
+		}
+	}
+
+	/**
+	 * Start watching the file and reload it in the background when it changes.
+	 */
+	public synchronized void watch() throws IOException {
+		if (watchService != null) {
+			return;
+		}
+
+		watchService = path.getFileSystem().newWatchService();
+		path.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+		WatchService ws = watchService;
+		Thread watcher = new Thread(() -> {
+			try {
+				while (true) {
+					WatchKey key = ws.take();
+					boolean changed = false;
+					for (WatchEvent<?> event : key.pollEvents()) {
+						if (path.getFileName().equals(event.context())) {
+							changed = true;
+						}
+					}
+					key.reset();
+
+					if (changed) {
+						try {
+							reload();
+						} catch (IOException | ParseException | RuntimeException e) {
+							// keep the current set, the file may still be being written
+							log.warn("Could not reload key set " + path, e);
+						}
+					}
+				}
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				// we're done
+			}
+		}, "httpsig-keyset-" + path.getFileName());
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	/**
+	 * Stop watching the file. The current key set stays available.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (watchService != null) {
+			watchService.close();
+			watchService = null;
+		}
+	}
+
+	/**
+	 * @return the path
+	 */
+	public Path getPath() {
+		return path;
+	}
+
+	private static class Keys {
+		private final JWKSet keySet;
+		private final Map<String, HttpSign> signers;
+		private final Map<String, HttpVerify> verifiers;
+
+		private Keys(JWKSet keySet, Map<String, HttpSign> signers, Map<String, HttpVerify> verifiers) {
+			this.keySet = keySet;
+			this.signers = signers;
+			this.verifiers = verifiers;
+		}
+	}
+
+}
@@ -0,0 +1,198 @@
+package io.bspk.httpsig;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.greenbytes.http.sfv.StringItem;
+
+/**
+ * Wraps a {@link ComponentProvider} and remembers every value it returns for
+ * the lifetime of a single message, so that components covered by several
+ * signatures, or checked more than once, are only resolved once. This includes
+ * the combining of repeated fields, dictionary member lookups with "key", and
+ * re-serialization with "sf".
+ *
+ * Component values are remembered by their full identifier, name and
+ * parameters, and are resolved from the remembered fields and derived
+ * components, so a compiled {@link SignatureBasePlan} and a
+ * {@link SignatureBaseBuilder} share the same work. Identifiers with "req" are
+ * passed to the wrapped provider. Missing values are remembered too, but
+ * exceptions are not.
+ *
+ * An instance isn't thread safe. To reuse one across messages, call
+ * {@link #reset(ComponentProvider)} with the next message, which keeps the
+ * allocated tables around, for example with a {@link ThreadLocal}:
+ *
+ * <pre>
+ * private static final ThreadLocal&lt;MemoizingComponentProvider&gt; MEMO =
+ *   ThreadLocal.withInitial(MemoizingComponentProvider::new);
+ *
+ * ComponentProvider ctx = MEMO.get().reset(new HttpServletRequestProvider(request));
+ * </pre>
+ *
+ * @author jricher
+ *
+ */
+public class MemoizingComponentProvider implements ComponentProvider {
+
+	private static final String MISSING = new String("missing");
+
+	private ComponentProvider delegate;
+
+	private final Map<StringItem, String> componentsByIdentity = new IdentityHashMap<>();
+	private final Map<String, String> components = new HashMap<>();
+	private final Map<String, String> fields = new HashMap<>();
+	private final Map<String, String> queryParams = new HashMap<>();
+
+	private String method;
+	private String authority;
+	private String scheme;
+	private String targetUri;
+	private String requestTarget;
+	private String path;
+	private String query;
+	private String status;
+
+	/**
+	 * Create an empty provider, to be given a message with {@link #reset(ComponentProvider)}.
+	 */
+	public MemoizingComponentProvider() {
+	}
+
+	public MemoizingComponentProvider(ComponentProvider delegate) {
+		reset(delegate);
+	}
+
+	/**
+	 * Forget everything remembered so far and start on a new message.
+	 *
+	 * @return this provider
+	 */
+	public MemoizingComponentProvider reset(ComponentProvider delegate) {
+		this.delegate = delegate;
+		componentsByIdentity.clear();
+		components.clear();
+		fields.clear();
+		queryParams.clear();
+		method = null;
+		authority = null;
+		scheme = null;
+		targetUri = null;
+		requestTarget = null;
+		path = null;
+		query = null;
+		status = null;
+		return this;
+	}
+
+	/**
+	 * @return the provider for the current message
+	 */
+	public ComponentProvider getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public String getMethod() {
+		return unwrap(method = memo(method, delegate::getMethod));
+	}
+
+	@Override
+	public String getAuthority() {
+		return unwrap(authority = memo(authority, delegate::getAuthority));
+	}
+
+	@Override
+	public String getScheme() {
+		return unwrap(scheme = memo(scheme, delegate::getScheme));
+	}
+
+	@Override
+	public String getTargetUri() {
+		return unwrap(targetUri = memo(targetUri, delegate::getTargetUri));
+	}
+
+	@Override
+	public String getRequestTarget() {
+		return unwrap(requestTarget = memo(requestTarget, delegate::getRequestTarget));
+	}
+
+	@Override
+	public String getPath() {
+		return unwrap(path = memo(path, delegate::getPath));
+	}
+
+	@Override
+	public String getQuery() {
+		return unwrap(query = memo(query, delegate::getQuery));
+	}
+
+	@Override
+	public String getStatus() {
+		return unwrap(status = memo(status, delegate::getStatus));
+	}
+
+	@Override
+	public String getQueryParams(String name) {
+		return memo(queryParams, name, delegate::getQueryParams);
+	}
+
+	@Override
+	public String getField(String name) {
+		return memo(fields, name, delegate::getField);
+	}
+
+	@Override
+	public StructuredFieldRegistry getStructuredFieldRegistry() {
+		return delegate.getStructuredFieldRegistry();
+	}
+
+	@Override
+	public String getComponentValue(StringItem componentIdentifier) {
+		// usually the same identifier object is asked for again, so check that before serializing it
+		String value = componentsByIdentity.get(componentIdentifier);
+		if (value == null) {
+			value = memo(components, componentIdentifier.serialize(), k -> resolve(componentIdentifier));
+			componentsByIdentity.put(componentIdentifier, value == null ? MISSING : value);
+			return value;
+		}
+		return unwrap(value);
+	}
+
+	private String resolve(StringItem componentIdentifier) {
+		if (componentIdentifier.getParams().containsKey("req")) {
+			// only the wrapped provider knows where its request is
+			return delegate.getComponentValue(componentIdentifier);
+		} else {
+			// goes through the remembered fields and derived components
+			return ComponentProvider.super.getComponentValue(componentIdentifier);
+		}
+	}
+
+	private static String memo(String current, Supplier<String> resolver) {
+		if (current != null) {
+			return current;
+		}
+		String value = resolver.get();
+		return value == null ? MISSING : value;
+	}
+
+	private static String memo(Map<String, String> cache, String key, Function<String, String> resolver) {
+		String value = cache.get(key);
+		if (value == null) {
+			value = resolver.apply(key);
+			cache.put(key, value == null ? MISSING : value);
+			return value;
+		}
+		return unwrap(value);
+	}
+
+	private static String unwrap(String value) {
+		// the sentinel is compared by identity so a real value of "missing" is never confused for it
+		return value == MISSING ? null : value;
+	}
+
+}
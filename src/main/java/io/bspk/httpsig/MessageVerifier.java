@@ -0,0 +1,299 @@
+package io.bspk.httpsig;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.greenbytes.http.sfv.ByteSequenceItem;
+import org.greenbytes.http.sfv.Dictionary;
+import org.greenbytes.http.sfv.ListElement;
+import org.greenbytes.http.sfv.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verifies every signature on a message in one pass.
+ *
+ * The Signature-Input and Signature fields are parsed once, with
+ * {@link SignatureField} when they're given as strings. The signature base
+ * for each label is built from a single {@link MemoizingComponentProvider}, so
+ * components covered by several signatures are only resolved once, and the key
+ * for each label is found with a {@link KeyResolver}. When created with an
+ * executor, the bases are still built on the calling thread but the signatures
+ * are checked in parallel.
+ *
+ * Labels can be marked as required. A required label that is missing from the
+ * message fails, and if {@link #setStopOnRequiredFailure(boolean)} is set, the
+ * first required label that fails stops any remaining verifications. Labels
+ * that were never checked are left out of the result.
+ *
+ * An empty result means that nothing was verified: the message has no
+ * signatures, or its signature fields couldn't be parsed, and no labels were
+ * asked for or required. Checking that no result is false isn't enough to
+ * accept a message, and neither is finding one true result, since a required
+ * label may have failed next to it. Use {@link #isVerified(Map)}, which is the
+ * rule the client integrations in this library apply.
+ *
+ * Configure a verifier up front; after that it can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class MessageVerifier {
+
+	private static final Logger log = LoggerFactory.getLogger(MessageVerifier.class);
+
+	private final KeyResolver keyResolver;
+	private final Executor executor;
+
+	private Set<String> requiredLabels = Collections.emptySet();
+	private boolean stopOnRequiredFailure = false;
+
+	/**
+	 * Verify the signatures one after the other on the calling thread.
+	 */
+	public MessageVerifier(KeyResolver keyResolver) {
+		this(keyResolver, null);
+	}
+
+	/**
+	 * Verify the signatures in parallel on the given executor.
+	 */
+	public MessageVerifier(KeyResolver keyResolver, Executor executor) {
+		this.keyResolver = keyResolver;
+		this.executor = executor;
+	}
+
+	/**
+	 * Verify all signatures on the message, reading the Signature-Input and Signature fields from it.
+	 *
+	 * @return the result for each label, in the order of the Signature-Input field;
+	 *   empty if nothing was verified
+	 */
+	public Map<String, Boolean> verify(ComponentProvider ctx) {
+		return verify(ctx.getField("signature-input"), ctx.getField("signature"), ctx, null);
+	}
+
+	/**
+	 * Verify the given labels, or all of them if null, using already extracted field values.
+	 *
+	 * @return the result for each label, in the order of the Signature-Input field;
+	 *   empty if nothing was verified
+	 */
+	public Map<String, Boolean> verify(String signatureInput, String signature, ComponentProvider ctx, Collection<String> labels) {
+		SignatureField inputs;
+		SignatureField signatures;
+		try {
+			inputs = SignatureField.parse(signatureInput);
+			signatures = SignatureField.parse(signature);
+		} catch (ParseException e) {
+			log.warn("Could not parse signature fields", e);
+			Map<String, Boolean> results = new LinkedHashMap<>();
+			if (labels != null) {
+				labels.forEach(label -> results.put(label, false));
+			}
+			requiredLabels.forEach(label -> results.put(label, false));
+			return results;
+		}
+		return verify(inputs.getLabels(), inputs::getSignatureParameters, signatures::getSignature, ctx, labels);
+	}
+
+	/**
+	 * Verify the given labels, or all of them if null, using already parsed fields.
+	 *
+	 * @return the result for each label, in the order of the Signature-Input field;
+	 *   empty if nothing was verified
+	 */
+	public Map<String, Boolean> verify(Dictionary signatureInput, Dictionary signature, ComponentProvider ctx, Collection<String> labels) {
+		return verify(signatureInput.get().keySet(),
+			label -> SignatureParameters.fromDictionaryEntry(signatureInput, label),
+			label -> {
+				ListElement<? extends Object> sigValue = signature.get().get(label);
+				if (sigValue instanceof ByteSequenceItem) {
+					ByteBuffer bb = ((ByteSequenceItem) sigValue).get();
+					byte[] bytes = new byte[bb.remaining()];
+					bb.get(bytes);
+					return bytes;
+				} else {
+					return null;
+				}
+			},
+			ctx, labels);
+	}
+
+	private Map<String, Boolean> verify(Set<String> inputLabels, Function<String, SignatureParameters> sigParamsForLabel,
+		Function<String, byte[]> signatureForLabel, ComponentProvider ctx, Collection<String> labels) {
+
+		Map<String, Boolean> results = new LinkedHashMap<>();
+
+		// required labels that aren't there at all fail right away
+		for (String label : requiredLabels) {
+			if (!inputLabels.contains(label)) {
+				log.warn("Required signature {} is missing", label);
+				results.put(label, false);
+				if (stopOnRequiredFailure) {
+					return results;
+				}
+			}
+		}
+
+		List<Check> checks = new ArrayList<>();
+		MemoizingComponentProvider components = new MemoizingComponentProvider(ctx);
+		AtomicBoolean stopped = new AtomicBoolean();
+
+		for (String label : inputLabels) {
+			if (labels != null && !labels.contains(label) && !requiredLabels.contains(label)) {
+				continue;
+			}
+
+			Check check = prepare(label, sigParamsForLabel, signatureForLabel, components);
+			checks.add(check);
+
+			if (executor == null) {
+				// check right away so that we can stop early
+				if (!finish(check, stopped)) {
+					break;
+				}
+			}
+		}
+
+		if (executor != null) {
+			CompletableFuture<?>[] futures = new CompletableFuture<?>[checks.size()];
+			for (int i = 0; i < futures.length; i++) {
+				Check check = checks.get(i);
+				futures[i] = CompletableFuture.runAsync(() -> finish(check, stopped), executor);
+			}
+			CompletableFuture.allOf(futures).join();
+		}
+
+		for (Check check : checks) {
+			if (check.done) {
+				results.put(check.label, check.result);
+			}
+		}
+
+		if (labels != null) {
+			for (String label : labels) {
+				if (!inputLabels.contains(label)) {
+					results.putIfAbsent(label, false);
+				}
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Parse the label's parameters and signature, find its key, and build its signature base.
+	 */
+	private Check prepare(String label, Function<String, SignatureParameters> sigParamsForLabel,
+		Function<String, byte[]> signatureForLabel, MemoizingComponentProvider components) {
+		Check check = new Check(label, requiredLabels.contains(label));
+		try {
+			SignatureParameters sigParams = sigParamsForLabel.apply(label);
+
+			check.signature = signatureForLabel.apply(label);
+			if (check.signature == null) {
+				log.warn("No signature value for {}", label);
+				return check;
+			}
+
+			check.verifier = keyResolver.resolve(sigParams);
+			if (check.verifier != null) {
+				check.base = new SignatureBaseBuilder(sigParams, components).createSignatureBase();
+			}
+		} catch (RuntimeException e) {
+			// usually a covered component that couldn't be found in the message
+			log.warn("Could not create signature base for " + label, e);
+			check.verifier = null;
+		}
+		return check;
+	}
+
+	/**
+	 * Run the cryptographic check, unless we've already been told to stop.
+	 *
+	 * @return false if we need to stop
+	 */
+	private boolean finish(Check check, AtomicBoolean stopped) {
+		if (stopped.get()) {
+			return false;
+		}
+
+		check.result = check.verifier != null && check.base != null && check.verifier.verify(check.base, check.signature);
+		check.done = true;
+
+		if (!check.result && check.required && stopOnRequiredFailure) {
+			log.warn("Required signature {} failed", check.label);
+			stopped.set(true);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Decide whether a message can be accepted from the result of one of the
+	 * verify methods. Required labels that are missing or fail are in the result
+	 * as false, so they're covered too.
+	 *
+	 * @return true if at least one signature was checked and every checked signature verified
+	 */
+	public static boolean isVerified(Map<String, Boolean> results) {
+		return !results.isEmpty() && !results.containsValue(false);
+	}
+
+	/**
+	 * @return the labels that have to be present and verify
+	 */
+	public Set<String> getRequiredLabels() {
+		return requiredLabels;
+	}
+
+	/**
+	 * @param requiredLabels the labels that have to be present and verify, always checked even if not asked for
+	 */
+	public MessageVerifier setRequiredLabels(Set<String> requiredLabels) {
+		this.requiredLabels = Set.copyOf(requiredLabels);
+		return this;
+	}
+
+	/**
+	 * @return whether the first failed required label stops the remaining verifications
+	 */
+	public boolean isStopOnRequiredFailure() {
+		return stopOnRequiredFailure;
+	}
+
+	/**
+	 * @param stopOnRequiredFailure whether the first failed required label stops the remaining verifications
+	 */
+	public MessageVerifier setStopOnRequiredFailure(boolean stopOnRequiredFailure) {
+		this.stopOnRequiredFailure = stopOnRequiredFailure;
+		return this;
+	}
+
+	private static class Check {
+		private final String label;
+		private final boolean required;
+		private HttpVerify verifier;
+		private byte[] base;
+		private byte[] signature;
+		private volatile boolean result;
+		private volatile boolean done;
+
+		private Check(String label, boolean required) {
+			this.label = label;
+			this.required = required;
+		}
+	}
+
+}
@@ -1,6 +1,11 @@
 package io.bspk.httpsig;
 
+import java.util.Map;
+import java.util.function.BiConsumer;
+
 import org.apache.commons.lang3.RandomStringUtils;
+import org.greenbytes.http.sfv.ByteSequenceItem;
+import org.greenbytes.http.sfv.Dictionary;
 
 /**
  * @author jricher
@@ -16,4 +21,17 @@ public interface MessageWrapper {
 
 	void addSignature(String signatureId, SignatureParameters signatureInput, byte[] signature);
 
+	/**
+	 * Create the Signature and Signature-Input fields for a signature and hand
+	 * each of them to the given function, which adds it to the message.
+	 */
+	static void addSignatureFields(String signatureId, SignatureParameters signatureInput, byte[] signature, BiConsumer<String, String> addField) {
+		Dictionary sigHeader = Dictionary.valueOf(Map.of(
+			signatureId, ByteSequenceItem.valueOf(signature)));
+
+		// the label was already checked by the dictionary above, so reuse the value from the signature base
+		addField.accept("Signature", sigHeader.serialize());
+		addField.accept("Signature-Input", signatureId + "=" + signatureInput.serializeComponentValue());
+	}
+
 }
@@ -0,0 +1,64 @@
+package io.bspk.httpsig;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A small bounded pool of ready-to-use crypto primitives ({@code Signature},
+ * {@code Mac}, {@code MessageDigest}) that have already been looked up and
+ * initialized with their key.
+ *
+ * Nothing is bound to the calling thread, so this works the same for platform
+ * and virtual threads: a caller borrows an instance, or creates a fresh one if
+ * the pool is empty, and hands it back when done. Instances that were in use
+ * when an exception was thrown are dropped instead of being returned.
+ *
+ * @author jricher
+ *
+ */
+class PrimitivePool<T> {
+
+	static final int DEFAULT_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+	private final Queue<T> pool;
+	private final Factory<T> factory;
+
+	PrimitivePool(Factory<T> factory) throws GeneralSecurityException {
+		this(factory, DEFAULT_CAPACITY);
+	}
+
+	PrimitivePool(Factory<T> factory, int capacity) throws GeneralSecurityException {
+		this.factory = factory;
+		this.pool = new ArrayBlockingQueue<>(capacity);
+
+		// create the first one up front so that bad keys and algorithms fail early
+		pool.offer(factory.create());
+	}
+
+	<R> R apply(Operation<T, R> operation) throws GeneralSecurityException, IOException {
+		T primitive = pool.poll();
+		if (primitive == null) {
+			primitive = factory.create();
+		}
+
+		R result = operation.apply(primitive);
+
+		// only reached if the operation completed, so the primitive is back in its initialized state
+		pool.offer(primitive);
+
+		return result;
+	}
+
+	@FunctionalInterface
+	interface Factory<T> {
+		T create() throws GeneralSecurityException;
+	}
+
+	@FunctionalInterface
+	interface Operation<T, R> {
+		R apply(T primitive) throws GeneralSecurityException, IOException;
+	}
+
+}
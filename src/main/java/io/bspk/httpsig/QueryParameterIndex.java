@@ -0,0 +1,97 @@
+package io.bspk.httpsig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hc.core5.http.NameValuePair;
+import org.apache.hc.core5.net.PercentCodec;
+import org.apache.hc.core5.net.WWWFormCodec;
+
+/**
+ * The query parameters of a request target, parsed once and indexed by name,
+ * for resolving "@query-param" components.
+ *
+ * The raw query is parsed as application/x-www-form-urlencoded. Names are
+ * indexed in their decoded form, and values are kept in the order they appear,
+ * re-encoded as they're used in the signature base.
+ *
+ * Instances are immutable. Providers build one lazily on the first
+ * "@query-param" lookup and keep it for the rest of the message.
+ *
+ * @author jricher
+ *
+ */
+public class QueryParameterIndex {
+
+	private static final QueryParameterIndex EMPTY = new QueryParameterIndex(Collections.emptyMap());
+
+	private final Map<String, List<String>> values;
+
+	private QueryParameterIndex(Map<String, List<String>> values) {
+		this.values = values;
+	}
+
+	/**
+	 * Parse and index a raw (still percent-encoded) query, with or without the leading "?".
+	 */
+	public static QueryParameterIndex parse(String rawQuery) {
+		if (rawQuery == null) {
+			return EMPTY;
+		}
+		if (rawQuery.startsWith("?")) {
+			rawQuery = rawQuery.substring(1);
+		}
+		if (rawQuery.isEmpty()) {
+			return EMPTY;
+		}
+
+		Map<String, List<String>> values = new HashMap<>();
+		for (NameValuePair param : WWWFormCodec.parse(rawQuery, StandardCharsets.UTF_8)) {
+			String value = param.getValue() == null ? "" : PercentCodec.encode(param.getValue(), StandardCharsets.UTF_8);
+			values.computeIfAbsent(param.getName(), k -> new ArrayList<>(1)).add(value);
+		}
+		return new QueryParameterIndex(values);
+	}
+
+	/**
+	 * @return all values of the named parameter in order, or an empty list if there are none
+	 */
+	public List<String> getValues(String name) {
+		List<String> found = values.get(name);
+		if (found == null) {
+			return Collections.emptyList();
+		} else {
+			return Collections.unmodifiableList(found);
+		}
+	}
+
+	/**
+	 * Get the single value of the named parameter, as used in the signature base.
+	 *
+	 * @return the value, or null if the parameter isn't in the query
+	 * @throws IllegalArgumentException if the parameter appears more than once,
+	 *   since a repeated parameter can't be covered on its own
+	 */
+	public String getValue(String name) {
+		List<String> found = values.get(name);
+		if (found == null) {
+			return null;
+		} else if (found.size() == 1) {
+			return found.get(0);
+		} else {
+			throw new IllegalArgumentException("Found " + found.size() + " values for query parameter " + name + ", a repeated parameter can't be covered on its own");
+		}
+	}
+
+	/**
+	 * @return true if the named parameter is in the query
+	 */
+	public boolean contains(String name) {
+		return values.containsKey(name);
+	}
+
+}
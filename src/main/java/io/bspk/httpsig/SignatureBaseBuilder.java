@@ -1,16 +1,18 @@
 package io.bspk.httpsig;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
 import org.greenbytes.http.sfv.StringItem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.base.Joiner;
-import com.google.common.base.Splitter;
-
 /**
  * @author jricher
  */
-public class SignatureBaseBuilder {
+public class SignatureBaseBuilder implements SignatureBaseWriter {
 
 
 	private static final Logger log = LoggerFactory.getLogger(SignatureBaseBuilder.class);
@@ -24,8 +26,29 @@ public class SignatureBaseBuilder {
 		this.ctx = ctx;
 	}
 
+	/**
+	 * Create the full signature base in memory, UTF-8 encoded. Useful for debugging,
+	 * but {@link HttpSign} and {@link HttpVerify} can take this builder directly.
+	 */
 	public byte[] createSignatureBase() {
-		StringBuilder base = new StringBuilder();
+		ByteArrayOutputStream base = new ByteArrayOutputStream();
+		try {
+			writeSignatureBase(base);
+		} catch (IOException e) {
+			// can't happen with an in-memory stream
+			throw new UncheckedIOException(e);
+		}
+		return base.toByteArray();
+	}
+
+	/**
+	 * Write the signature base to the given stream, UTF-8 encoded, one line at a time.
+	 */
+	@Override
+	public void writeSignatureBase(OutputStream out) throws IOException {
+		// reused for every line
+		StringBuilder line = new StringBuilder();
+		byte[] buf = new byte[256];
 
 		for (StringItem componentIdentifier : sigParams.getComponentIdentifiers()) {
 
@@ -33,10 +56,12 @@ public class SignatureBaseBuilder {
 
 			if (componentValue != null) {
 				// write out the line to the base
-				componentIdentifier.serializeTo(base)
-					.append(": ")
-					.append(componentValue)
-					.append('\n');
+				line.setLength(0);
+				componentIdentifier.serializeTo(line)
+					.append(": ");
+				writeUtf8(line, out, buf);
+				writeUtf8(componentValue, out, buf);
+				out.write('\n');
 			} else {
 				// FIXME: be more graceful about bailing
 				throw new RuntimeException("Couldn't find a value for required parameter: " + componentIdentifier.serialize());
@@ -44,14 +69,49 @@ public class SignatureBaseBuilder {
 		}
 
 		// add the signature parameters line
-		sigParams.toComponentIdentifier().serializeTo(base)
+		line.setLength(0);
+		sigParams.toComponentIdentifier().serializeTo(line)
 			.append(": ");
-		sigParams.toComponentValue().serializeTo(base);
-
-
-		//log.info("~~~ Signature Base  :\n ~~~ : {}", Joiner.on("\n~~~ : ").join(Splitter.on("\n").split(base.toString())));
+		line.append(sigParams.serializeComponentValue());
+		writeUtf8(line, out, buf);
+	}
 
-		return base.toString().getBytes();
+	/**
+	 * Encode the characters as UTF-8 into the stream, using the buffer as scratch space
+	 * so that no copy of the whole string is made.
+	 */
+	static void writeUtf8(CharSequence s, OutputStream out, byte[] buf) throws IOException {
+		int n = 0;
+		int len = s.length();
+		for (int i = 0; i < len; i++) {
+			if (n > buf.length - 4) {
+				out.write(buf, 0, n);
+				n = 0;
+			}
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				buf[n++] = (byte) c;
+			} else if (c < 0x800) {
+				buf[n++] = (byte) (0xC0 | (c >> 6));
+				buf[n++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				buf[n++] = (byte) (0xF0 | (cp >> 18));
+				buf[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+				buf[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+				buf[n++] = (byte) (0x80 | (cp & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				// unpaired surrogate, same replacement as String.getBytes
+				buf[n++] = '?';
+			} else {
+				buf[n++] = (byte) (0xE0 | (c >> 12));
+				buf[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buf[n++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		if (n > 0) {
+			out.write(buf, 0, n);
+		}
 	}
 
 }
@@ -0,0 +1,278 @@
+package io.bspk.httpsig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.greenbytes.http.sfv.Item;
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+
+/**
+ * A list of covered components compiled once and reused for every message that
+ * signs or verifies the same components.
+ *
+ * Compiling does all the per-identifier work up front: each identifier is
+ * serialized into its line prefix, derived components are bound to their
+ * accessor, and the "key", "sf", and "req" parameters are checked and resolved.
+ * Running the plan against a message then only fetches the component values.
+ * The result is byte for byte the same as {@link SignatureBaseBuilder}.
+ *
+ * Errors in the identifiers themselves, like an unknown derived component or a
+ * field that isn't known to be structured, are thrown from {@link #compile(List)}
+ * instead of when the base is created. Structured fields are classified with the
+ * registry given to the plan; a provider with a different registry falls back
+ * to its own lookup.
+ *
+ * Plans are immutable and can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class SignatureBasePlan {
+
+	private static final byte[] SIGNATURE_PARAMS_PREFIX = "\"@signature-params\": ".getBytes(StandardCharsets.UTF_8);
+
+	private final List<StringItem> componentIdentifiers;
+	private final Step[] steps;
+
+	private SignatureBasePlan(List<StringItem> componentIdentifiers, Step[] steps) {
+		this.componentIdentifiers = componentIdentifiers;
+		this.steps = steps;
+	}
+
+	/**
+	 * Compile the component identifiers of these signature parameters.
+	 */
+	public static SignatureBasePlan compile(SignatureParameters sigParams) {
+		return compile(sigParams.getComponentIdentifiers());
+	}
+
+	/**
+	 * Compile the list of component identifiers, in order, looking up structured
+	 * fields in the default registry.
+	 *
+	 * @throws IllegalArgumentException if any of the identifiers is invalid
+	 */
+	public static SignatureBasePlan compile(List<StringItem> componentIdentifiers) {
+		return compile(componentIdentifiers, StructuredFieldRegistry.getDefault());
+	}
+
+	/**
+	 * Compile the list of component identifiers, in order, looking up structured
+	 * fields in the given registry. Later changes to the registry don't affect the plan.
+	 *
+	 * @throws IllegalArgumentException if any of the identifiers is invalid
+	 */
+	public static SignatureBasePlan compile(List<StringItem> componentIdentifiers, StructuredFieldRegistry registry) {
+		List<StringItem> identifiers = Collections.unmodifiableList(new ArrayList<>(componentIdentifiers));
+		Step[] steps = new Step[identifiers.size()];
+		for (int i = 0; i < steps.length; i++) {
+			steps[i] = compileStep(identifiers.get(i), registry);
+		}
+		return new SignatureBasePlan(identifiers, steps);
+	}
+
+	private static Step compileStep(StringItem componentIdentifier, StructuredFieldRegistry registry) {
+		String baseIdentifier = componentIdentifier.get();
+		Parameters params = componentIdentifier.getParams();
+
+		Accessor accessor;
+		if (baseIdentifier.startsWith("@")) {
+			// derived component
+			switch (baseIdentifier) {
+				case "@method":
+					accessor = ComponentProvider::getMethod;
+					break;
+				case "@authority":
+					accessor = ComponentProvider::getAuthority;
+					break;
+				case "@scheme":
+					accessor = ComponentProvider::getScheme;
+					break;
+				case "@target-uri":
+					accessor = ComponentProvider::getTargetUri;
+					break;
+				case "@request-target":
+					accessor = ComponentProvider::getRequestTarget;
+					break;
+				case "@path":
+					accessor = ComponentProvider::getPath;
+					break;
+				case "@query":
+					accessor = ComponentProvider::getQuery;
+					break;
+				case "@status":
+					accessor = ComponentProvider::getStatus;
+					break;
+				case "@query-param":
+				{
+					if (params.containsKey("name")) {
+						Item<? extends Object> nameParameter = params.get("name");
+						if (nameParameter instanceof StringItem) {
+							String name = ((StringItem)nameParameter).get();
+							accessor = ctx -> ctx.getQueryParams(name);
+						} else {
+							throw new IllegalArgumentException("Invalid Syntax: Value for 'name' parameter of " + baseIdentifier + " must be a StringItem");
+						}
+					} else {
+						throw new IllegalArgumentException("'name' parameter of " + baseIdentifier + " is required");
+					}
+					break;
+				}
+				default:
+					throw new IllegalArgumentException("Unknown derived component: " + baseIdentifier);
+			}
+		} else if (params.containsKey("key")) {
+			Item<? extends Object> keyParameter = params.get("key");
+			if (keyParameter instanceof StringItem) {
+				String key = ((StringItem)keyParameter).get();
+				accessor = ctx -> ComponentProvider.getDictionaryMember(baseIdentifier, key, ctx.getField(baseIdentifier));
+			} else {
+				throw new IllegalArgumentException("Invalid Syntax: Value for 'key' parameter of field " + baseIdentifier + " must be a StringItem");
+			}
+		} else if (params.containsKey("sf")) {
+			StructuredFieldType type = registry.get(baseIdentifier);
+			if (type != null) {
+				accessor = ctx -> {
+					if (ctx.getStructuredFieldRegistry() == registry) {
+						return ComponentProvider.serializeStructuredField(baseIdentifier, type, ctx.getField(baseIdentifier));
+					} else {
+						// this provider has its own idea of the field's type
+						return ctx.getComponentValue(componentIdentifier);
+					}
+				};
+			} else {
+				throw new IllegalArgumentException("Field " + baseIdentifier + " is not a structured field");
+			}
+		} else {
+			accessor = ctx -> ctx.getField(baseIdentifier);
+		}
+
+		if (params.containsKey("req")) {
+			// same as ResponseComponentProviderAdapter: read from the request when we're looking at a response
+			Accessor fromRequest = accessor;
+			accessor = ctx -> {
+				if (ctx instanceof ResponseComponentProviderAdapter) {
+					ComponentProvider requestComponentProvider = ((ResponseComponentProviderAdapter) ctx).getRequestComponentProvider();
+					if (requestComponentProvider != null) {
+						return fromRequest.get(requestComponentProvider);
+					} else {
+						throw new IllegalArgumentException("Request component not supported");
+					}
+				} else {
+					// any other provider, including wrappers around a response, decides for itself
+					return ctx.getComponentValue(componentIdentifier);
+				}
+			};
+		}
+
+		String serialized = componentIdentifier.serialize();
+		byte[] prefix = (serialized + ": ").getBytes(StandardCharsets.UTF_8);
+
+		return new Step(componentIdentifier, serialized, prefix, accessor);
+	}
+
+	/**
+	 * @return the component identifiers this plan was compiled from, in order
+	 */
+	public List<StringItem> getComponentIdentifiers() {
+		return componentIdentifiers;
+	}
+
+	/**
+	 * @return true if the signature parameters cover exactly the components of this plan, in the same order
+	 */
+	public boolean matches(SignatureParameters sigParams) {
+		List<StringItem> other = sigParams.getComponentIdentifiers();
+		if (other.size() != steps.length) {
+			return false;
+		}
+		for (int i = 0; i < steps.length; i++) {
+			StringItem componentIdentifier = other.get(i);
+			// usually the very same object, so only serialize when it isn't
+			if (componentIdentifier != steps[i].componentIdentifier
+				&& !componentIdentifier.serialize().equals(steps[i].serialized)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create the full signature base for this message in memory, UTF-8 encoded.
+	 */
+	public byte[] createSignatureBase(SignatureParameters sigParams, ComponentProvider ctx) {
+		ByteArrayOutputStream base = new ByteArrayOutputStream();
+		try {
+			writeSignatureBase(sigParams, ctx, base);
+		} catch (IOException e) {
+			// can't happen with an in-memory stream
+			throw new UncheckedIOException(e);
+		}
+		return base.toByteArray();
+	}
+
+	/**
+	 * @return a writer for this message that can be passed directly to {@link HttpSign} and {@link HttpVerify}
+	 */
+	public SignatureBaseWriter bind(SignatureParameters sigParams, ComponentProvider ctx) {
+		return out -> writeSignatureBase(sigParams, ctx, out);
+	}
+
+	/**
+	 * Write the signature base for this message to the given stream, UTF-8 encoded.
+	 *
+	 * @throws IllegalArgumentException if the signature parameters don't cover the components of this plan
+	 */
+	public void writeSignatureBase(SignatureParameters sigParams, ComponentProvider ctx, OutputStream out) throws IOException {
+		if (!matches(sigParams)) {
+			throw new IllegalArgumentException("Signature parameters don't match the compiled components: " + sigParams.getComponentIdentifiers());
+		}
+
+		byte[] buf = new byte[256];
+
+		for (Step step : steps) {
+
+			String componentValue = step.accessor.get(ctx);
+
+			if (componentValue != null) {
+				out.write(step.prefix);
+				SignatureBaseBuilder.writeUtf8(componentValue, out, buf);
+				out.write('\n');
+			} else {
+				// FIXME: be more graceful about bailing
+				throw new RuntimeException("Couldn't find a value for required parameter: " + step.serialized);
+			}
+		}
+
+		// add the signature parameters line
+		out.write(SIGNATURE_PARAMS_PREFIX);
+		SignatureBaseBuilder.writeUtf8(sigParams.serializeComponentValue(), out, buf);
+	}
+
+	@FunctionalInterface
+	private interface Accessor {
+		String get(ComponentProvider ctx);
+	}
+
+	private static class Step {
+		private final StringItem componentIdentifier;
+		private final String serialized;
+		private final byte[] prefix;
+		private final Accessor accessor;
+
+		private Step(StringItem componentIdentifier, String serialized, byte[] prefix, Accessor accessor) {
+			this.componentIdentifier = componentIdentifier;
+			this.serialized = serialized;
+			this.prefix = prefix;
+			this.accessor = accessor;
+		}
+	}
+
+}
@@ -0,0 +1,20 @@
+package io.bspk.httpsig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Something that can write out a signature base as bytes, such as a
+ * {@link SignatureBaseBuilder}. {@link HttpSign} and {@link HttpVerify} pass in
+ * a stream that feeds the crypto engine directly, so the whole base never needs
+ * to be held in memory. Callers can also pass in their own reusable buffer.
+ *
+ * @author jricher
+ *
+ */
+@FunctionalInterface
+public interface SignatureBaseWriter {
+
+	void writeSignatureBase(OutputStream out) throws IOException;
+
+}
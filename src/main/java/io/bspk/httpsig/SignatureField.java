@@ -0,0 +1,505 @@
+package io.bspk.httpsig;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.greenbytes.http.sfv.BooleanItem;
+import org.greenbytes.http.sfv.ByteSequenceItem;
+import org.greenbytes.http.sfv.DecimalItem;
+import org.greenbytes.http.sfv.IntegerItem;
+import org.greenbytes.http.sfv.Item;
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.ParseException;
+import org.greenbytes.http.sfv.StringItem;
+import org.greenbytes.http.sfv.TokenItem;
+
+/**
+ * A Signature or Signature-Input field, checked and indexed by label.
+ *
+ * {@link #parse(String)} checks the syntax of the whole field as a structured
+ * field dictionary but only remembers where each member's value starts in the
+ * original string. Nothing else is created until a label is asked for:
+ * {@link #getSignatureParameters(String)} builds the parameters of a single
+ * Signature-Input member, and {@link #getSignature(String)} decodes a single
+ * Signature member straight into a byte array.
+ *
+ * Both are checked as strictly as RFC 9421 requires: a Signature-Input member
+ * has to be an inner list of strings, with integer "created" and "expires"
+ * parameters and string "alg", "keyid", "nonce" and "tag" parameters, and a
+ * Signature member has to be a byte sequence. Anything else is an
+ * {@link IllegalArgumentException}, the same as the generic parser throws.
+ *
+ * @author jricher
+ *
+ */
+public class SignatureField {
+
+	private static final String ALG = "alg";
+	private static final String CREATED = "created";
+	private static final String EXPIRES = "expires";
+	private static final String KEYID = "keyid";
+	private static final String NONCE = "nonce";
+	private static final String TAG = "tag";
+
+	// the member is a bare key, which is a boolean true
+	private static final int NO_VALUE = -1;
+
+	private final String fieldValue;
+	private final int end;
+	private final Map<String, Integer> members;
+
+	private SignatureField(String fieldValue, int end, Map<String, Integer> members) {
+		this.fieldValue = fieldValue;
+		this.end = end;
+		this.members = members;
+	}
+
+	/**
+	 * Check the syntax of the field and index its members. A null or empty field has no members.
+	 *
+	 * @throws ParseException if the field isn't a valid dictionary
+	 */
+	public static SignatureField parse(String fieldValue) {
+		if (fieldValue == null) {
+			fieldValue = "";
+		}
+
+		// leading and trailing spaces are ignored
+		int end = fieldValue.length();
+		while (end > 0 && fieldValue.charAt(end - 1) == ' ') {
+			end--;
+		}
+		Scanner scanner = new Scanner(fieldValue, 0, end);
+		scanner.skipSP();
+
+		// duplicate keys keep the position of the first and the value of the last
+		Map<String, Integer> members = new LinkedHashMap<>();
+		while (!scanner.atEnd()) {
+			String key = scanner.key();
+			if (scanner.peek() == '=') {
+				scanner.pos++;
+				members.put(key, scanner.pos);
+				if (scanner.peek() == '(') {
+					scanner.innerList(false);
+				} else {
+					scanner.bareItem(false);
+					scanner.parameters(false);
+				}
+			} else {
+				members.put(key, NO_VALUE);
+				scanner.parameters(false);
+			}
+
+			scanner.skipOWS();
+			if (scanner.atEnd()) {
+				break;
+			}
+			scanner.expect(',');
+			scanner.skipOWS();
+			if (scanner.atEnd()) {
+				throw scanner.error("Trailing comma");
+			}
+		}
+
+		return new SignatureField(fieldValue, end, members);
+	}
+
+	/**
+	 * @return the labels in the field, in order
+	 */
+	public Set<String> getLabels() {
+		return Collections.unmodifiableSet(members.keySet());
+	}
+
+	/**
+	 * @return true if the field has a member with this label
+	 */
+	public boolean contains(String label) {
+		return members.containsKey(label);
+	}
+
+	/**
+	 * Build the signature parameters of a Signature-Input member.
+	 *
+	 * @return the parameters, or null if there's no member with this label
+	 * @throws IllegalArgumentException if the member isn't valid signature parameters
+	 */
+	public SignatureParameters getSignatureParameters(String label) {
+		Integer start = members.get(label);
+		if (start == null) {
+			return null;
+		} else if (start == NO_VALUE || fieldValue.charAt(start) != '(') {
+			throw new IllegalArgumentException("Invalid syntax, identifier '" + label + "' must be an inner list");
+		}
+
+		Scanner scanner = new Scanner(fieldValue, start + 1, end);
+		List<StringItem> componentIdentifiers = new ArrayList<>();
+		while (true) {
+			scanner.skipSP();
+			if (scanner.peek() == ')') {
+				scanner.pos++;
+				break;
+			}
+			Item<? extends Object> item = scanner.bareItem(true);
+			if (!(item instanceof StringItem)) {
+				throw new IllegalArgumentException("Invalid syntax, component identifiers of '" + label + "' must be strings");
+			}
+			Map<String, Object> params = scanner.parameters(true);
+			componentIdentifiers.add(params.isEmpty()
+				? (StringItem) item
+				: ((StringItem) item).withParams(Parameters.valueOf(params)));
+		}
+
+		SignatureParameters sigParams = new SignatureParameters()
+			.setComponentIdentifiers(componentIdentifiers);
+
+		Map<String, Object> params = scanner.parameters(true);
+		for (Map.Entry<String, Object> param : params.entrySet()) {
+			String key = param.getKey();
+			Object value = param.getValue();
+			if (key.equals(ALG)) {
+				sigParams.setAlg(HttpSigAlgorithm.of(string(label, key, value)));
+			} else if (key.equals(CREATED)) {
+				sigParams.setCreated(Instant.ofEpochSecond(integer(label, key, value)));
+			} else if (key.equals(EXPIRES)) {
+				sigParams.setExpires(Instant.ofEpochSecond(integer(label, key, value)));
+			} else if (key.equals(KEYID)) {
+				sigParams.setKeyid(string(label, key, value));
+			} else if (key.equals(NONCE)) {
+				sigParams.setNonce(string(label, key, value));
+			} else if (key.equals(TAG)) {
+				sigParams.setTag(string(label, key, value));
+			} else {
+				sigParams.setParameter(key, value);
+			}
+		}
+
+		return sigParams;
+	}
+
+	/**
+	 * Decode the signature value of a Signature member.
+	 *
+	 * @return the decoded bytes, or null if there's no member with this label
+	 * @throws IllegalArgumentException if the member isn't a byte sequence
+	 */
+	public byte[] getSignature(String label) {
+		Integer start = members.get(label);
+		if (start == null) {
+			return null;
+		} else if (start == NO_VALUE || fieldValue.charAt(start) != ':') {
+			throw new IllegalArgumentException("Invalid syntax, signature '" + label + "' must be a byte sequence");
+		}
+
+		return new Scanner(fieldValue, start, end).byteSequence(true);
+	}
+
+	private static String string(String label, String key, Object value) {
+		if (value instanceof StringItem) {
+			return ((StringItem) value).get();
+		} else {
+			throw new IllegalArgumentException("Invalid syntax, parameter '" + key + "' of '" + label + "' must be a string");
+		}
+	}
+
+	private static long integer(String label, String key, Object value) {
+		if (value instanceof IntegerItem) {
+			return ((IntegerItem) value).getAsLong();
+		} else {
+			throw new IllegalArgumentException("Invalid syntax, parameter '" + key + "' of '" + label + "' must be an integer");
+		}
+	}
+
+	/**
+	 * Walks a structured field from RFC 8941, either just checking the syntax or
+	 * also building the items.
+	 */
+	private static class Scanner {
+
+		private final String s;
+		private final int end;
+		private int pos;
+
+		private Scanner(String s, int pos, int end) {
+			this.s = s;
+			this.pos = pos;
+			this.end = end;
+		}
+
+		private boolean atEnd() {
+			return pos >= end;
+		}
+
+		private char peek() {
+			return pos < end ? s.charAt(pos) : 0;
+		}
+
+		private void expect(char c) {
+			if (peek() != c) {
+				throw error("Expected '" + c + "'");
+			}
+			pos++;
+		}
+
+		private ParseException error(String message) {
+			return new ParseException(message, s, pos);
+		}
+
+		private void skipSP() {
+			while (pos < end && s.charAt(pos) == ' ') {
+				pos++;
+			}
+		}
+
+		private void skipOWS() {
+			while (pos < end && (s.charAt(pos) == ' ' || s.charAt(pos) == '\t')) {
+				pos++;
+			}
+		}
+
+		private String key() {
+			int start = pos;
+			char c = peek();
+			if (!((c >= 'a' && c <= 'z') || c == '*')) {
+				throw error("Key must start with a lowercase letter or '*'");
+			}
+			pos++;
+			while (pos < end) {
+				c = s.charAt(pos);
+				if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-' || c == '.' || c == '*') {
+					pos++;
+				} else {
+					break;
+				}
+			}
+			return s.substring(start, pos);
+		}
+
+		private void innerList(boolean build) {
+			expect('(');
+			while (true) {
+				skipSP();
+				if (peek() == ')') {
+					pos++;
+					break;
+				}
+				bareItem(build);
+				parameters(build);
+				char c = peek();
+				if (c != ' ' && c != ')') {
+					throw error("Expected ' ' or ')' in inner list");
+				}
+			}
+			parameters(build);
+		}
+
+		/**
+		 * @return the parameters in order if building, otherwise null
+		 */
+		private Map<String, Object> parameters(boolean build) {
+			Map<String, Object> params = build ? new LinkedHashMap<>() : null;
+			while (peek() == ';') {
+				pos++;
+				skipSP();
+				String key = key();
+				Item<? extends Object> value;
+				if (peek() == '=') {
+					pos++;
+					value = bareItem(build);
+				} else {
+					value = build ? BooleanItem.valueOf(true) : null;
+				}
+				if (build) {
+					params.put(key, value);
+				}
+			}
+			return params;
+		}
+
+		/**
+		 * @return the item if building, otherwise null
+		 */
+		private Item<? extends Object> bareItem(boolean build) {
+			char c = peek();
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				return number(build);
+			} else if (c == '"') {
+				return string(build);
+			} else if (c == ':') {
+				byte[] bytes = byteSequence(build);
+				return build ? ByteSequenceItem.valueOf(bytes) : null;
+			} else if (c == '?') {
+				return bool(build);
+			} else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '*') {
+				return token(build);
+			} else {
+				throw error("Unexpected start of item");
+			}
+		}
+
+		private Item<? extends Object> number(boolean build) {
+			int start = pos;
+			if (peek() == '-') {
+				pos++;
+			}
+			int digits = 0;
+			while (pos < end && s.charAt(pos) >= '0' && s.charAt(pos) <= '9') {
+				pos++;
+				digits++;
+			}
+			if (digits == 0) {
+				throw error("Expected a digit");
+			}
+			if (peek() != '.') {
+				if (digits > 15) {
+					throw error("Integer has too many digits");
+				}
+				return build ? IntegerItem.valueOf(Long.parseLong(s.substring(start, pos))) : null;
+			}
+
+			if (digits > 12) {
+				throw error("Decimal has too many integer digits");
+			}
+			pos++;
+			int fraction = 0;
+			while (pos < end && s.charAt(pos) >= '0' && s.charAt(pos) <= '9') {
+				pos++;
+				fraction++;
+			}
+			if (fraction == 0 || fraction > 3) {
+				throw error("Decimal must have one to three fractional digits");
+			}
+			return build ? DecimalItem.valueOf(new BigDecimal(s.substring(start, pos))) : null;
+		}
+
+		private Item<? extends Object> string(boolean build) {
+			pos++;
+			int start = pos;
+			StringBuilder unescaped = null;
+			while (pos < end) {
+				char c = s.charAt(pos);
+				if (c == '"') {
+					String value = null;
+					if (build) {
+						value = unescaped == null ? s.substring(start, pos) : unescaped.append(s, start, pos).toString();
+					}
+					pos++;
+					return build ? StringItem.valueOf(value) : null;
+				} else if (c == '\\') {
+					char next = pos + 1 < end ? s.charAt(pos + 1) : 0;
+					if (next != '"' && next != '\\') {
+						throw error("Invalid escape in string");
+					}
+					if (build) {
+						if (unescaped == null) {
+							unescaped = new StringBuilder();
+						}
+						unescaped.append(s, start, pos).append(next);
+					}
+					pos += 2;
+					start = pos;
+				} else if (c < 0x20 || c > 0x7E) {
+					throw error("Invalid character in string");
+				} else {
+					pos++;
+				}
+			}
+			throw error("Unterminated string");
+		}
+
+		private Item<? extends Object> token(boolean build) {
+			int start = pos;
+			pos++;
+			while (pos < end && isTokenChar(s.charAt(pos))) {
+				pos++;
+			}
+			return build ? TokenItem.valueOf(s.substring(start, pos)) : null;
+		}
+
+		private Item<? extends Object> bool(boolean build) {
+			pos++;
+			char c = peek();
+			if (c != '0' && c != '1') {
+				throw error("Boolean must be ?0 or ?1");
+			}
+			pos++;
+			return build ? BooleanItem.valueOf(c == '1') : null;
+		}
+
+		/**
+		 * Check a byte sequence and, if building, decode it with no intermediate copies.
+		 *
+		 * @return the decoded bytes if building, otherwise null
+		 */
+		private byte[] byteSequence(boolean build) {
+			expect(':');
+			int start = pos;
+			int padding = 0;
+			while (pos < end && s.charAt(pos) != ':') {
+				char c = s.charAt(pos);
+				if (c == '=') {
+					padding++;
+				} else if (padding > 0 || base64(c) < 0) {
+					throw error("Invalid character in byte sequence");
+				}
+				pos++;
+			}
+			if (atEnd()) {
+				throw error("Unterminated byte sequence");
+			}
+			int dataEnd = pos - padding;
+			int chars = dataEnd - start;
+			if (padding > 2 || chars % 4 == 1 || (padding > 0 && (chars + padding) % 4 != 0)) {
+				throw error("Invalid length of byte sequence");
+			}
+			pos++;
+
+			if (!build) {
+				return null;
+			}
+
+			byte[] out = new byte[chars / 4 * 3 + Math.max(0, chars % 4 - 1)];
+			int o = 0;
+			int bits = 0;
+			int n = 0;
+			for (int i = start; i < dataEnd; i++) {
+				bits = (bits << 6) | base64(s.charAt(i));
+				n += 6;
+				if (n >= 8) {
+					n -= 8;
+					out[o++] = (byte) (bits >> n);
+				}
+			}
+			return out;
+		}
+
+		private static int base64(char c) {
+			if (c >= 'A' && c <= 'Z') {
+				return c - 'A';
+			} else if (c >= 'a' && c <= 'z') {
+				return c - 'a' + 26;
+			} else if (c >= '0' && c <= '9') {
+				return c - '0' + 52;
+			} else if (c == '+') {
+				return 62;
+			} else if (c == '/') {
+				return 63;
+			} else {
+				return -1;
+			}
+		}
+
+		private static boolean isTokenChar(char c) {
+			return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+				|| "!#$%&'*+-.^_`|~:/".indexOf(c) >= 0;
+		}
+
+	}
+
+}
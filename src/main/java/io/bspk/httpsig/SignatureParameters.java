@@ -1,10 +1,15 @@
 package io.bspk.httpsig;
 
 import java.time.Instant;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.greenbytes.http.sfv.Dictionary;
@@ -18,6 +23,13 @@ import org.greenbytes.http.sfv.StringItem;
 /**
  * Carrier class for signature parameters.
  *
+ * The well-known parameters are kept in typed fields, anything else is kept
+ * as-is in a separate map, and the order the parameters were first set in is
+ * remembered so that they serialize in that order. The serialized
+ * "@signature-params" value is built the first time it's needed and kept until
+ * the parameters or the covered components change, so signing a message and
+ * then adding its Signature-Input field only builds it once.
+ *
  * @author jricher
  *
  */
@@ -30,53 +42,173 @@ public class SignatureParameters {
 	private static final String NONCE = "nonce";
 	private static final String TAG = "tag";
 
+	private static final StringItem SIGNATURE_PARAMS = StringItem.valueOf("@signature-params");
+
 	private List<StringItem> componentIdentifiers = new ArrayList<>();
 
-	// this preserves insertion order
+	private HttpSigAlgorithm alg;
+	private Instant created;
+	private Instant expires;
+	private String keyid;
+	private String nonce;
+	private String tag;
+
+	// any other parameters
 	private Map<String, Object> parameters = new LinkedHashMap<>();
 
+	// names of all set parameters, in the order they were first set
+	private List<String> order = new ArrayList<>();
+
+	// built on demand, cleared on every change
+	private InnerList componentValue;
+	private String serializedComponentValue;
+
+	// live views that keep the cache up to date
+	private final List<StringItem> componentIdentifiersView = new ComponentIdentifierList();
+	private final Map<String, Object> parametersView = new ParameterMap();
+
 	/**
-	 * @return the componentIdentifiers
+	 * @return the componentIdentifiers, changes to the list are written through
 	 */
 	public List<StringItem> getComponentIdentifiers() {
-		return componentIdentifiers;
+		return componentIdentifiersView;
 	}
 
 	/**
 	 * @param componentIdentifiers the componentIdentifiers to set
 	 */
 	public SignatureParameters setComponentIdentifiers(List<StringItem> componentIdentifiers) {
-		this.componentIdentifiers = componentIdentifiers;
+		this.componentIdentifiers = new ArrayList<>(componentIdentifiers);
+		changed();
 		return this;
 	}
 
 	/**
-	 * @return the parameters
+	 * @return all parameters, including the well-known ones, in order; changes
+	 *   to the map are written through as with {@link #setParameter(String, Object)}
 	 */
 	public Map<String, Object> getParameters() {
-		return parameters;
+		return parametersView;
 	}
 
 	/**
-	 * @param parameters the parameters to set
+	 * Replace all parameters, including the well-known ones.
+	 *
+	 * @param parameters the parameters to set, as for {@link #setParameter(String, Object)}
 	 */
 	public SignatureParameters setParameters(Map<String, Object> parameters) {
-		this.parameters = parameters;
+		this.alg = null;
+		this.created = null;
+		this.expires = null;
+		this.keyid = null;
+		this.nonce = null;
+		this.tag = null;
+		this.parameters = new LinkedHashMap<>();
+		this.order = new ArrayList<>();
+		parameters.forEach(this::setParameter);
+		changed();
 		return this;
 	}
 
+	/**
+	 * Set a parameter, or remove it if the value is null. The well-known
+	 * parameters are handed to their typed setters: "alg" takes an
+	 * {@link HttpSigAlgorithm} or its name, "created" and "expires" take an
+	 * {@link Instant} or epoch seconds, and the others take a string. Any of
+	 * them can also be given as a structured field item.
+	 *
+	 * @param value for other parameters, anything {@link Parameters#valueOf(Map)} accepts
+	 */
+	public SignatureParameters setParameter(String name, Object value) {
+		Object plain = value instanceof Item ? ((Item<?>) value).get() : value;
+		switch (name) {
+			case ALG:
+				if (plain == null || plain instanceof HttpSigAlgorithm) {
+					return setAlg((HttpSigAlgorithm) plain);
+				} else if (plain instanceof String) {
+					return setAlg(HttpSigAlgorithm.of((String) plain));
+				}
+				break;
+			case CREATED:
+				if (plain == null || plain instanceof Instant || plain instanceof Number) {
+					return setCreated(instant(plain));
+				}
+				break;
+			case EXPIRES:
+				if (plain == null || plain instanceof Instant || plain instanceof Number) {
+					return setExpires(instant(plain));
+				}
+				break;
+			case KEYID:
+				if (plain == null || plain instanceof String) {
+					return setKeyid((String) plain);
+				}
+				break;
+			case NONCE:
+				if (plain == null || plain instanceof String) {
+					return setNonce((String) plain);
+				}
+				break;
+			case TAG:
+				if (plain == null || plain instanceof String) {
+					return setTag((String) plain);
+				}
+				break;
+			default:
+				if (value == null) {
+					parameters.remove(name);
+				} else {
+					parameters.put(name, value);
+				}
+				track(name, value);
+				return this;
+		}
+		throw new IllegalArgumentException("Invalid value for parameter " + name + ": " + value);
+	}
+
+	private static Instant instant(Object value) {
+		if (value instanceof Number) {
+			return Instant.ofEpochSecond(((Number) value).longValue());
+		} else {
+			return (Instant) value;
+		}
+	}
+
+	/**
+	 * @return the value of a parameter, the well-known ones as their typed values
+	 */
+	private Object getParameter(String name) {
+		switch (name) {
+			case ALG:
+				return alg;
+			case CREATED:
+				return created;
+			case EXPIRES:
+				return expires;
+			case KEYID:
+				return keyid;
+			case NONCE:
+				return nonce;
+			case TAG:
+				return tag;
+			default:
+				return parameters.get(name);
+		}
+	}
+
 	/**
 	 * @return the alg
 	 */
 	public HttpSigAlgorithm getAlg() {
-		return (HttpSigAlgorithm) getParameters().get(ALG);
+		return alg;
 	}
 
 	/**
 	 * @param alg the alg to set
 	 */
 	public SignatureParameters setAlg(HttpSigAlgorithm alg) {
-		getParameters().put(ALG, alg);
+		this.alg = alg;
+		track(ALG, alg);
 		return this;
 	}
 
@@ -84,14 +216,15 @@ public class SignatureParameters {
 	 * @return the created
 	 */
 	public Instant getCreated() {
-		return (Instant) getParameters().get(CREATED);
+		return created;
 	}
 
 	/**
 	 * @param created the created to set
 	 */
 	public SignatureParameters setCreated(Instant created) {
-		getParameters().put(CREATED, created);
+		this.created = created;
+		track(CREATED, created);
 		return this;
 	}
 
@@ -99,14 +232,15 @@ public class SignatureParameters {
 	 * @return the expires
 	 */
 	public Instant getExpires() {
-		return (Instant) getParameters().get(EXPIRES);
+		return expires;
 	}
 
 	/**
 	 * @param expires the expires to set
 	 */
 	public SignatureParameters setExpires(Instant expires) {
-		getParameters().put(EXPIRES, expires);
+		this.expires = expires;
+		track(EXPIRES, expires);
 		return this;
 	}
 
@@ -114,14 +248,15 @@ public class SignatureParameters {
 	 * @return the keyid
 	 */
 	public String getKeyid() {
-		return (String) getParameters().get(KEYID);
+		return keyid;
 	}
 
 	/**
 	 * @param keyid the keyid to set
 	 */
 	public SignatureParameters setKeyid(String keyid) {
-		getParameters().put(KEYID, keyid);
+		this.keyid = keyid;
+		track(KEYID, keyid);
 		return this;
 	}
 
@@ -129,64 +264,145 @@ public class SignatureParameters {
 	 * @return the nonce
 	 */
 	public String getNonce() {
-		return (String) getParameters().get(NONCE);
+		return nonce;
 	}
 
 	/**
 	 * @param nonce the nonce to set
 	 */
 	public SignatureParameters setNonce(String nonce) {
-		getParameters().put(NONCE, nonce);
+		this.nonce = nonce;
+		track(NONCE, nonce);
 		return this;
 	}
 
 	public String getTag() {
-		return (String) getParameters().get(TAG);
+		return tag;
 	}
 
 	public SignatureParameters setTag(String tag) {
-		getParameters().put(TAG, tag);
+		this.tag = tag;
+		track(TAG, tag);
 		return this;
 	}
 
+	/**
+	 * Keep the parameter order up to date and drop the cached value.
+	 */
+	private void track(String name, Object value) {
+		if (value == null) {
+			order.remove(name);
+		} else if (!order.contains(name)) {
+			order.add(name);
+		}
+		changed();
+	}
+
+	private void changed() {
+		componentValue = null;
+		serializedComponentValue = null;
+	}
+
+	/**
+	 * Copy these parameters for one message, with created first and the nonce last,
+	 * taking a serialized value that the caller has already put together in that order.
+	 * With all nulls this is a plain copy.
+	 */
+	SignatureParameters forMessage(Instant created, String nonce, String serialized) {
+		SignatureParameters params = new SignatureParameters();
+		params.componentIdentifiers = new ArrayList<>(componentIdentifiers);
+		if (created != null) {
+			params.created = created;
+			params.order.add(CREATED);
+		}
+		params.alg = alg;
+		params.expires = expires;
+		params.keyid = keyid;
+		params.nonce = this.nonce;
+		params.tag = tag;
+		params.parameters.putAll(parameters);
+		for (String name : order) {
+			if (!params.order.contains(name)) {
+				params.order.add(name);
+			}
+		}
+		if (nonce != null) {
+			params.nonce = nonce;
+			if (!params.order.contains(NONCE)) {
+				params.order.add(NONCE);
+			}
+		}
+		params.serializedComponentValue = serialized;
+		return params;
+	}
+
 	public StringItem toComponentIdentifier() {
-		return StringItem.valueOf("@signature-params");
+		return SIGNATURE_PARAMS;
 	}
 
+	/**
+	 * @return the covered components and parameters, built once until the next change
+	 */
 	public InnerList toComponentValue() {
+		InnerList list = componentValue;
+		if (list == null) {
+			list = buildComponentValue();
+			componentValue = list;
+		}
+		return list;
+	}
 
-		// we do this cast to get around Java's generic type restrictions
-		List<Item<? extends Object>> identifiers = componentIdentifiers.stream()
-			.map(e -> (Item<? extends Object>) e)
-			.collect(Collectors.toList());
+	/**
+	 * @return the serialized "@signature-params" value, as used in both the signature base
+	 *   and the Signature-Input field, built once until the next change
+	 */
+	public String serializeComponentValue() {
+		String serialized = serializedComponentValue;
+		if (serialized == null) {
+			serialized = toComponentValue().serialize();
+			serializedComponentValue = serialized;
+		}
+		return serialized;
+	}
+
+	private InnerList buildComponentValue() {
+
+		// copied into a wider type to get around Java's generic type restrictions
+		List<Item<? extends Object>> identifiers = new ArrayList<>(componentIdentifiers);
 
 		InnerList list = InnerList.valueOf(identifiers);
 
 		Map<String, Object> params = new LinkedHashMap<>();
 
 		// preserve order
-		for (String paramName : getParameters().keySet()) {
-			if (paramName.equals(ALG)) {
-				HttpSigAlgorithm alg = getAlg();
-				if (alg.getExplicitAlg() != null) {
-					params.put(ALG, alg.getExplicitAlg());
-				}
-			} else if (paramName.equals(CREATED)) {
-				params.put(CREATED, getCreated().getEpochSecond());
-			} else if (paramName.equals(EXPIRES)) {
-				params.put(EXPIRES, getExpires().getEpochSecond());
-			} else if (paramName.equals(KEYID)) {
-				params.put(KEYID, getKeyid());
-			} else if (paramName.equals(NONCE)) {
-				params.put(NONCE, getNonce());
-			} else {
-				params.put(paramName, getParameters().get(paramName));
+		for (String paramName : order) {
+			switch (paramName) {
+				case ALG:
+					if (alg.getExplicitAlg() != null) {
+						params.put(ALG, alg.getExplicitAlg());
+					}
+					break;
+				case CREATED:
+					params.put(CREATED, created.getEpochSecond());
+					break;
+				case EXPIRES:
+					params.put(EXPIRES, expires.getEpochSecond());
+					break;
+				case KEYID:
+					params.put(KEYID, keyid);
+					break;
+				case NONCE:
+					params.put(NONCE, nonce);
+					break;
+				case TAG:
+					params.put(TAG, tag);
+					break;
+				default:
+					params.put(paramName, parameters.get(paramName));
 			}
 		}
 
-		list = list.withParams(Parameters.valueOf(params));
-
-		return list;
+		return list.withParams(Parameters.valueOf(params));
 	}
 
 	/**
@@ -198,6 +414,7 @@ public class SignatureParameters {
 		} else {
 			componentIdentifiers.add(StringItem.valueOf(identifier));
 		}
+		changed();
 		return this;
 	}
 
@@ -207,9 +424,11 @@ public class SignatureParameters {
 	 */
 	public SignatureParameters addComponentIdentifier(StringItem identifier) {
 		componentIdentifiers.add(identifier);
+		changed();
 		return this;
 	}
 
+
 	// this ignores parameters
 	public boolean containsComponentIdentifier(String identifier) {
 		return componentIdentifiers.stream()
@@ -252,7 +471,7 @@ public class SignatureParameters {
 						params.setCreated(
 							Instant.ofEpochSecond(((NumberItem<?>)coveredComponents.getParams().get(CREATED)).getAsLong()));
 					} else if (key.equals(EXPIRES)) {
-						params.setCreated(
+						params.setExpires(
 							Instant.ofEpochSecond(((NumberItem<?>)coveredComponents.getParams().get(EXPIRES)).getAsLong()));
 					} else  if (key.equals(KEYID)) {
 						params.setKeyid(((StringItem)coveredComponents.getParams().get(KEYID)).get());
@@ -261,7 +480,7 @@ public class SignatureParameters {
 					} else if (key.equals(TAG)) {
 						params.setTag(((StringItem)coveredComponents.getParams().get(TAG)).get());
 					} else {
-						params.getParameters().put(key, coveredComponents.getParams().get(key).serialize()); // store the serialized version
+						params.setParameter(key, coveredComponents.getParams().get(key)); // keep the item so it serializes the same way
 					}
 				}
 
@@ -276,8 +495,127 @@ public class SignatureParameters {
 
 	}
 
+	/**
+	 * The covered components, dropping the cached value on every change.
+	 */
+	private class ComponentIdentifierList extends AbstractList<StringItem> {
+
+		@Override
+		public StringItem get(int index) {
+			return componentIdentifiers.get(index);
+		}
+
+		@Override
+		public int size() {
+			return componentIdentifiers.size();
+		}
+
+		@Override
+		public StringItem set(int index, StringItem element) {
+			StringItem previous = componentIdentifiers.set(index, element);
+			changed();
+			return previous;
+		}
+
+		@Override
+		public void add(int index, StringItem element) {
+			componentIdentifiers.add(index, element);
+			changed();
+		}
+
+		@Override
+		public StringItem remove(int index) {
+			StringItem previous = componentIdentifiers.remove(index);
+			changed();
+			return previous;
+		}
+
+	}
+
+	/**
+	 * All parameters in order, with every change going through {@link #setParameter(String, Object)}.
+	 */
+	private class ParameterMap extends AbstractMap<String, Object> {
+
+		@Override
+		public Object get(Object key) {
+			return key instanceof String ? getParameter((String) key) : null;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return order.contains(key);
+		}
+
+		@Override
+		public Object put(String key, Object value) {
+			Object previous = getParameter(key);
+			setParameter(key, value);
+			return previous;
+		}
+
+		@Override
+		public Object remove(Object key) {
+			if (!(key instanceof String)) {
+				return null;
+			}
+			Object previous = getParameter((String) key);
+			setParameter((String) key, null);
+			return previous;
+		}
+
+		@Override
+		public Set<Entry<String, Object>> entrySet() {
+			return new AbstractSet<>() {
+
+				@Override
+				public Iterator<Entry<String, Object>> iterator() {
+					// walk a copy, so removing through the iterator is safe
+					Iterator<String> names = new ArrayList<>(order).iterator();
+					return new Iterator<>() {
+						private String current;
+
+						@Override
+						public boolean hasNext() {
+							return names.hasNext();
+						}
+
+						@Override
+						public Entry<String, Object> next() {
+							current = names.next();
+							return new SimpleEntry<>(current, getParameter(current)) {
+								private static final long serialVersionUID = 1L;
+
+								@Override
+								public Object setValue(Object value) {
+									setParameter(getKey(), value);
+									return super.setValue(value);
+								}
+							};
+						}
+
+						@Override
+						public void remove() {
+							if (current == null) {
+								throw new IllegalStateException();
+							}
+							setParameter(current, null);
+							current = null;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return order.size();
+				}
+			};
+		}
+
+	}
+
 	@Override
 	public String toString() {
-		return "SignatureParameters: " + toComponentValue().serialize();
+		return "SignatureParameters: " + serializeComponentValue();
 	}
 }
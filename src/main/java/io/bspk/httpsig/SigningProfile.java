@@ -0,0 +1,150 @@
+package io.bspk.httpsig;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import org.greenbytes.http.sfv.StringItem;
+
+/**
+ * Everything about outgoing signatures that stays the same from one message to
+ * the next: the signer, the covered components, and the alg, keyid, tag, and
+ * any other parameters.
+ *
+ * The covered components are compiled into a {@link SignatureBasePlan} and the
+ * constant parts of the "@signature-params" value are serialized when the
+ * profile is created. Signing a message then only adds the created time and,
+ * if there's a nonce supplier, a fresh nonce, so the per-message work is
+ * looking up the component values and the cryptography.
+ *
+ * The parameters always come out as created first, then the template's
+ * parameters in the order they were set, then the nonce.
+ *
+ * Profiles are immutable and can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class SigningProfile {
+
+	private final HttpSign signer;
+	private final String label;
+	private final Supplier<String> nonces;
+	private final Clock clock;
+
+	private final SignatureParameters template;
+	private final SignatureBasePlan plan;
+
+	// the covered components followed by ";created=", and the parameters that come after the created time
+	private final String componentsPrefix;
+	private final String constantParameters;
+
+	/**
+	 * A profile using the system clock, no nonce, and a random label for each signature.
+	 */
+	public SigningProfile(HttpSign signer, SignatureParameters template) {
+		this(signer, template, null, null, Clock.systemUTC());
+	}
+
+	/**
+	 * @param signer the signer used for every message
+	 * @param template the covered components and constant parameters, must not set created, expires, or nonce
+	 * @param label the signature label, or null to pick a random one for each signature
+	 * @param nonces supplies a new nonce for each message, or null for no nonce
+	 * @param clock the clock for the created time
+	 * @throws IllegalArgumentException if the template sets a per-message parameter or covers an invalid component
+	 */
+	public SigningProfile(HttpSign signer, SignatureParameters template, String label, Supplier<String> nonces, Clock clock) {
+		if (template.getCreated() != null || template.getExpires() != null || template.getNonce() != null) {
+			throw new IllegalArgumentException("The created, expires, and nonce parameters are set for each message, not in the profile");
+		}
+
+		this.signer = signer;
+		this.label = label;
+		this.nonces = nonces;
+		this.clock = clock;
+
+		// our own copy, so later changes to the template don't leak in
+		this.template = template.forMessage(null, null, null);
+		this.plan = SignatureBasePlan.compile(this.template);
+
+		String components = new SignatureParameters()
+			.setComponentIdentifiers(this.template.getComponentIdentifiers())
+			.serializeComponentValue();
+		this.componentsPrefix = components + ";created=";
+		this.constantParameters = this.template.serializeComponentValue().substring(components.length());
+	}
+
+	/**
+	 * Create the signature parameters for a new message, with the current time
+	 * and a fresh nonce, already serialized.
+	 */
+	public SignatureParameters createSignatureParameters() {
+		Instant created = Instant.ofEpochSecond(clock.millis() / 1000);
+
+		StringBuilder serialized = new StringBuilder(componentsPrefix.length() + constantParameters.length() + 48)
+			.append(componentsPrefix)
+			.append(created.getEpochSecond())
+			.append(constantParameters);
+
+		String nonce = null;
+		if (nonces != null) {
+			nonce = nonces.get();
+			serialized.append(";nonce=");
+			StringItem.valueOf(nonce).serializeTo(serialized);
+		}
+
+		return template.forMessage(created, nonce, serialized.toString());
+	}
+
+	/**
+	 * Sign a message with signature parameters from {@link #createSignatureParameters()}.
+	 *
+	 * @return the signature, or null if it couldn't be created
+	 */
+	public byte[] sign(SignatureParameters sigParams, ComponentProvider ctx) {
+		return signer.sign(plan.bind(sigParams, ctx));
+	}
+
+	/**
+	 * Sign a message and add the signature to it.
+	 *
+	 * @return the signature parameters that were used, or null if the message couldn't be signed
+	 */
+	public SignatureParameters sign(ComponentProvider ctx, MessageWrapper message) {
+		SignatureParameters sigParams = createSignatureParameters();
+		byte[] signature = sign(sigParams, ctx);
+		if (signature == null) {
+			return null;
+		}
+
+		if (label == null) {
+			message.addSignature(sigParams, signature);
+		} else {
+			message.addSignature(label, sigParams, signature);
+		}
+		return sigParams;
+	}
+
+	/**
+	 * @return the signer
+	 */
+	public HttpSign getSigner() {
+		return signer;
+	}
+
+	/**
+	 * @return the label, or null if a random one is picked for each signature
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @return the compiled covered components
+	 */
+	public SignatureBasePlan getPlan() {
+		return plan;
+	}
+
+}
@@ -0,0 +1,158 @@
+package io.bspk.httpsig;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps field names to the kind of structured field they hold, so that their
+ * values can be re-serialized when a component identifier has the "sf" flag.
+ *
+ * The {@link #getDefault() default registry} is preloaded with the well known
+ * structured fields and is shared by every {@link ComponentProvider} unless the
+ * provider overrides {@link ComponentProvider#getStructuredFieldRegistry()}.
+ * Fields can be added to it at runtime. A registry created with a parent falls
+ * back to the parent for any field it doesn't know, which lets a single
+ * provider add or override fields without affecting anyone else.
+ *
+ * Field names are matched in lower case, like component identifiers. Lookups
+ * are a single hash lookup, and registries are safe to use and change from
+ * multiple threads.
+ *
+ * @author jricher
+ *
+ */
+public class StructuredFieldRegistry {
+
+	private static final StructuredFieldRegistry DEFAULT = new StructuredFieldRegistry();
+
+	static {
+		// Lists
+		DEFAULT.register("accept", StructuredFieldType.LIST);
+		DEFAULT.register("accept-encoding", StructuredFieldType.LIST);
+		DEFAULT.register("accept-language", StructuredFieldType.LIST);
+		DEFAULT.register("accept-patch", StructuredFieldType.LIST);
+		DEFAULT.register("accept-ranges", StructuredFieldType.LIST);
+		DEFAULT.register("access-control-allow-headers", StructuredFieldType.LIST);
+		DEFAULT.register("access-control-allow-methods", StructuredFieldType.LIST);
+		DEFAULT.register("access-control-expose-headers", StructuredFieldType.LIST);
+		DEFAULT.register("access-control-request-headers", StructuredFieldType.LIST);
+		DEFAULT.register("allow", StructuredFieldType.LIST);
+		DEFAULT.register("alpn", StructuredFieldType.LIST);
+		DEFAULT.register("connection", StructuredFieldType.LIST);
+		DEFAULT.register("content-encoding", StructuredFieldType.LIST);
+		DEFAULT.register("content-language", StructuredFieldType.LIST);
+		DEFAULT.register("content-length", StructuredFieldType.LIST);
+		DEFAULT.register("te", StructuredFieldType.LIST);
+		DEFAULT.register("timing-allow-origin", StructuredFieldType.LIST);
+		DEFAULT.register("trailer", StructuredFieldType.LIST);
+		DEFAULT.register("transfer-encoding", StructuredFieldType.LIST);
+		DEFAULT.register("vary", StructuredFieldType.LIST);
+		DEFAULT.register("x-xss-protection", StructuredFieldType.LIST);
+		DEFAULT.register("cache-status", StructuredFieldType.LIST);
+		DEFAULT.register("proxy-status", StructuredFieldType.LIST);
+		DEFAULT.register("variant-key", StructuredFieldType.LIST);
+		DEFAULT.register("x-list", StructuredFieldType.LIST);
+		DEFAULT.register("x-list-a", StructuredFieldType.LIST);
+		DEFAULT.register("x-list-b", StructuredFieldType.LIST);
+		DEFAULT.register("accept-ch", StructuredFieldType.LIST);
+		DEFAULT.register("example-list", StructuredFieldType.LIST);
+
+		// Dictionaries
+		DEFAULT.register("alt-svc", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("cache-control", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("expect-ct", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("keep-alive", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("pragma", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("prefer", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("preference-applied", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("surrogate-control", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("variants", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("signature", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("signature-input", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("priority", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("x-dictionary", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("example-dict", StructuredFieldType.DICTIONARY);
+		DEFAULT.register("cdn-cache-control", StructuredFieldType.DICTIONARY);
+
+		// Items
+		DEFAULT.register("access-control-max-age", StructuredFieldType.ITEM);
+		DEFAULT.register("access-control-allow-credentials", StructuredFieldType.ITEM);
+		DEFAULT.register("access-control-allow-origin", StructuredFieldType.ITEM);
+		DEFAULT.register("access-control-request-method", StructuredFieldType.ITEM);
+		DEFAULT.register("age", StructuredFieldType.ITEM);
+		DEFAULT.register("alt-used", StructuredFieldType.ITEM);
+		DEFAULT.register("content-type", StructuredFieldType.ITEM);
+		DEFAULT.register("cross-origin-resource-policy", StructuredFieldType.ITEM);
+		DEFAULT.register("expect", StructuredFieldType.ITEM);
+		DEFAULT.register("host", StructuredFieldType.ITEM);
+		DEFAULT.register("origin", StructuredFieldType.ITEM);
+		DEFAULT.register("retry-after", StructuredFieldType.ITEM);
+		DEFAULT.register("x-content-type-options", StructuredFieldType.ITEM);
+		DEFAULT.register("x-frame-options", StructuredFieldType.ITEM);
+		DEFAULT.register("example-integer", StructuredFieldType.ITEM);
+		DEFAULT.register("example-decimal", StructuredFieldType.ITEM);
+		DEFAULT.register("example-string", StructuredFieldType.ITEM);
+		DEFAULT.register("example-token", StructuredFieldType.ITEM);
+		DEFAULT.register("example-bytesequence", StructuredFieldType.ITEM);
+		DEFAULT.register("example-boolean", StructuredFieldType.ITEM);
+	}
+
+	private final Map<String, StructuredFieldType> types = new ConcurrentHashMap<>();
+	private final StructuredFieldRegistry parent;
+
+	/**
+	 * Create an empty registry.
+	 */
+	public StructuredFieldRegistry() {
+		this(null);
+	}
+
+	/**
+	 * Create a registry that falls back to the given parent, usually {@link #getDefault()}.
+	 */
+	public StructuredFieldRegistry(StructuredFieldRegistry parent) {
+		this.parent = parent;
+	}
+
+	/**
+	 * @return the shared registry of well known structured fields
+	 */
+	public static StructuredFieldRegistry getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Register the type of a structured field, replacing any previous registration in this registry.
+	 */
+	public StructuredFieldRegistry register(String fieldName, StructuredFieldType type) {
+		types.put(fieldName.toLowerCase(Locale.ROOT), type);
+		return this;
+	}
+
+	/**
+	 * Remove a field from this registry. The parent, if any, is not changed.
+	 */
+	public StructuredFieldRegistry unregister(String fieldName) {
+		types.remove(fieldName.toLowerCase(Locale.ROOT));
+		return this;
+	}
+
+	/**
+	 * @return the type of the named field, or null if it's not a known structured field
+	 */
+	public StructuredFieldType get(String fieldName) {
+		// returns the same string when it's already lower case, as it is from the signature base builders
+		return lookup(fieldName.toLowerCase(Locale.ROOT));
+	}
+
+	private StructuredFieldType lookup(String fieldName) {
+		StructuredFieldType type = types.get(fieldName);
+		if (type == null && parent != null) {
+			return parent.lookup(fieldName);
+		} else {
+			return type;
+		}
+	}
+
+}
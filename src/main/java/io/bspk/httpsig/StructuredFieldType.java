@@ -0,0 +1,52 @@
+package io.bspk.httpsig;
+
+import org.greenbytes.http.sfv.Parser;
+import org.greenbytes.http.sfv.Type;
+
+/**
+ * The kinds of structured field, used to re-serialize a field value when a
+ * component identifier has the "sf" flag.
+ *
+ * @see StructuredFieldRegistry
+ *
+ * @author jricher
+ *
+ */
+public enum StructuredFieldType {
+
+	LIST {
+		@Override
+		public Type<?> parse(String fieldValue) {
+			return Parser.parseList(fieldValue);
+		}
+	},
+	DICTIONARY {
+		@Override
+		public Type<?> parse(String fieldValue) {
+			return Parser.parseDictionary(fieldValue);
+		}
+	},
+	ITEM {
+		@Override
+		public Type<?> parse(String fieldValue) {
+			return Parser.parseItem(fieldValue);
+		}
+	};
+
+	/**
+	 * Parse the field value as this kind of structured field.
+	 *
+	 * @throws org.greenbytes.http.sfv.ParseException if the value doesn't parse
+	 */
+	public abstract Type<?> parse(String fieldValue);
+
+	/**
+	 * Parse and re-serialize the field value in its canonical form.
+	 *
+	 * @throws org.greenbytes.http.sfv.ParseException if the value doesn't parse
+	 */
+	public String serialize(String fieldValue) {
+		return parse(fieldValue).serialize();
+	}
+
+}
@@ -0,0 +1,35 @@
+package io.bspk.httpsig;
+
+import java.io.OutputStream;
+
+/**
+ * Adapts the {@code update} method of a {@code MessageDigest}, {@code Mac} or
+ * similar engine to an {@link OutputStream}.
+ *
+ * @author jricher
+ *
+ */
+class UpdateOutputStream extends OutputStream {
+
+	private final Update update;
+
+	UpdateOutputStream(Update update) {
+		this.update = update;
+	}
+
+	@Override
+	public void write(int b) {
+		update.update(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		update.update(b, off, len);
+	}
+
+	@FunctionalInterface
+	interface Update {
+		void update(byte[] input, int offset, int len);
+	}
+
+}
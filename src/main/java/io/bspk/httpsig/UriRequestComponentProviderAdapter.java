@@ -1,21 +1,23 @@
 package io.bspk.httpsig;
 
 import java.net.URI;
-import java.nio.charset.Charset;
-import java.util.List;
-
-import org.apache.hc.core5.http.NameValuePair;
-import org.apache.hc.core5.net.PercentCodec;
-import org.apache.hc.core5.net.WWWFormCodec;
 
 /**
+ * Derives the request components from the request's URI.
+ *
+ * Subclasses that can get at the URI's parts more cheaply can pass no URI to
+ * the constructor and implement {@link #createUri()} instead, which is then
+ * called at most once, the first time a component needs the full URI.
+ *
  * @author jricher
  *
  */
 public abstract class UriRequestComponentProviderAdapter extends RequestComponentProviderAdapter {
 
 
-    private final URI uri;
+    private URI uri;
+
+    private QueryParameterIndex queryParameterIndex;
 
 
     public UriRequestComponentProviderAdapter(URI uri)
@@ -24,24 +26,54 @@ public abstract class UriRequestComponentProviderAdapter extends RequestComponen
     }
 
 
+    /**
+     * Create the URI later, with {@link #createUri()}.
+     */
+    protected UriRequestComponentProviderAdapter()
+    {
+        this.uri = null;
+    }
+
+
+    /**
+     * Create the URI the first time it's needed, for subclasses that didn't pass one to the constructor.
+     */
+    protected URI createUri()
+    {
+        throw new IllegalStateException("No URI was given and createUri() isn't implemented");
+    }
+
+
+    /**
+     * @return the request URI, created on first use if it wasn't given up front
+     */
+    protected URI getUri()
+    {
+        if (uri == null) {
+            uri = createUri();
+        }
+        return uri;
+    }
+
+
     @Override
     public String getAuthority()
     {
-        return uri.getAuthority();
+        return getUri().getAuthority();
     }
 
 
     @Override
     public String getScheme()
     {
-        return uri.getScheme();
+        return getUri().getScheme();
     }
 
 
     @Override
     public String getTargetUri()
     {
-        return uri.toString();
+        return getUri().toString();
     }
 
 
@@ -49,11 +81,11 @@ public abstract class UriRequestComponentProviderAdapter extends RequestComponen
     public String getRequestTarget()
     {
 		String reqt = "";
-		if (uri.getRawPath() != null) {
-			reqt += uri.getRawPath();
+		if (getUri().getRawPath() != null) {
+			reqt += getUri().getRawPath();
 		}
-		if (uri.getRawQuery() != null) {
-			reqt += "?" + uri.getRawQuery();
+		if (getUri().getRawQuery() != null) {
+			reqt += "?" + getUri().getRawQuery();
 		}
 		return reqt;
     }
@@ -62,29 +94,42 @@ public abstract class UriRequestComponentProviderAdapter extends RequestComponen
     @Override
     public String getPath()
     {
-        return uri.getPath();
+        return getUri().getPath();
     }
 
 
     @Override
     public String getQuery()
     {
-        return "?" + uri.getQuery();
+        return "?" + getUri().getQuery();
     }
 
 
     @Override
     public String getQueryParams(String name)
     {
-        List<NameValuePair> params = WWWFormCodec.parse(getQuery(), Charset.defaultCharset());
-        return params.stream()
-                .filter(p -> p.getName().equals(name))
-                .map(NameValuePair::getValue)
-                .map(v -> PercentCodec.encode(v, Charset.defaultCharset()))
-                .reduce((a, b) -> {
-                    throw new IllegalArgumentException("Found two named parameters, unsupported opperation");
-                })
-                .orElse(null);
+        return getQueryParameterIndex().getValue(name);
+    }
+
+
+    /**
+     * @return the raw (still percent-encoded) query, or null if there isn't one
+     */
+    protected String getRawQuery()
+    {
+        return getUri().getRawQuery();
+    }
+
+
+    /**
+     * @return the index of the query parameters, parsed on first use
+     */
+    protected QueryParameterIndex getQueryParameterIndex()
+    {
+        if (queryParameterIndex == null) {
+            queryParameterIndex = QueryParameterIndex.parse(getRawQuery());
+        }
+        return queryParameterIndex;
     }
 
 
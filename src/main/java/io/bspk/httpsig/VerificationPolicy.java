@@ -0,0 +1,227 @@
+package io.bspk.httpsig;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+
+/**
+ * The rules an incoming signature has to meet before it's worth verifying:
+ * which algorithms are allowed, which components have to be covered, and how
+ * old the signature can be.
+ *
+ * Everything here looks only at the signature parameters and the clock, so
+ * a request that breaks the policy can be turned away before any key lookup,
+ * cryptography, or access to the message body. Component names are normalized
+ * when they're set, the same way {@link SignatureParameters#addComponentIdentifier(String)}
+ * does, so the checks themselves are plain comparisons. Covered components have
+ * to match exactly, parameters included, so requiring "content-digest" isn't met
+ * by a signature that only covers "content-digest";req.
+ *
+ * Configure a policy up front; after that it can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class VerificationPolicy {
+
+	/**
+	 * Why a signed message was turned away.
+	 */
+	public enum Reason {
+		/** There's no signature, or no signature with the expected label. */
+		MISSING_SIGNATURE,
+		/** The signature fields couldn't be parsed. */
+		MALFORMED_SIGNATURE,
+		/** The signature's algorithm, or the algorithm of its key, isn't allowed. */
+		ALGORITHM_NOT_ALLOWED,
+		/** A required component isn't covered by the signature. */
+		MISSING_COMPONENT,
+		/** The policy needs a created or expires parameter that isn't there. */
+		MISSING_PARAMETER,
+		/** The signature was created too long ago. */
+		TOO_OLD,
+		/** The signature was created in the future. */
+		NOT_YET_VALID,
+		/** The signature has expired. */
+		EXPIRED,
+		/** The key named by the signature isn't known. */
+		UNKNOWN_KEY,
+		/** The signature doesn't verify. */
+		INVALID_SIGNATURE
+	}
+
+	private Set<HttpSigAlgorithm> allowedAlgorithms;
+	private StringItem[] requiredComponents = new StringItem[0];
+	// the serialized parameters of each required component, "" for none
+	private String[] requiredParameters = new String[0];
+	private Duration maxAge;
+	private boolean expiresRequired = false;
+	private Duration clockSkew = Duration.ZERO;
+
+	/**
+	 * Check the signature parameters against this policy, without looking at
+	 * the key or the message.
+	 *
+	 * @return the reason the signature breaks the policy, or null if it's fine
+	 */
+	public Reason check(SignatureParameters sigParams, Instant now) {
+		if (sigParams.getAlg() != null && !isAllowed(sigParams.getAlg())) {
+			return Reason.ALGORITHM_NOT_ALLOWED;
+		}
+
+		for (int i = 0; i < requiredComponents.length; i++) {
+			if (!covers(sigParams, requiredComponents[i].get(), requiredParameters[i])) {
+				return Reason.MISSING_COMPONENT;
+			}
+		}
+
+		Instant created = sigParams.getCreated();
+		if (created != null) {
+			if (created.isAfter(now.plus(clockSkew))) {
+				return Reason.NOT_YET_VALID;
+			}
+			if (maxAge != null && created.plus(maxAge).plus(clockSkew).isBefore(now)) {
+				return Reason.TOO_OLD;
+			}
+		} else if (maxAge != null) {
+			return Reason.MISSING_PARAMETER;
+		}
+
+		Instant expires = sigParams.getExpires();
+		if (expires != null) {
+			if (expires.plus(clockSkew).isBefore(now)) {
+				return Reason.EXPIRED;
+			}
+		} else if (expiresRequired) {
+			return Reason.MISSING_PARAMETER;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return true if signatures with this algorithm are allowed
+	 */
+	public boolean isAllowed(HttpSigAlgorithm alg) {
+		return allowedAlgorithms == null || allowedAlgorithms.contains(alg);
+	}
+
+	private static boolean covers(SignatureParameters sigParams, String name, String parameters) {
+		for (StringItem componentIdentifier : sigParams.getComponentIdentifiers()) {
+			if (componentIdentifier.get().equals(name)
+				&& (parameters.isEmpty()
+					? componentIdentifier.getParams().isEmpty()
+					: parameters.equals(serialize(componentIdentifier.getParams())))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String serialize(Parameters parameters) {
+		return parameters.serializeTo(new StringBuilder()).toString();
+	}
+
+	/**
+	 * @return the allowed algorithms, or null if any algorithm is allowed
+	 */
+	public Set<HttpSigAlgorithm> getAllowedAlgorithms() {
+		return allowedAlgorithms;
+	}
+
+	/**
+	 * @param allowedAlgorithms the allowed algorithms, or null to allow any algorithm
+	 */
+	public VerificationPolicy setAllowedAlgorithms(Collection<HttpSigAlgorithm> allowedAlgorithms) {
+		this.allowedAlgorithms = allowedAlgorithms == null ? null : Set.copyOf(allowedAlgorithms);
+		return this;
+	}
+
+	/**
+	 * @return the components every signature has to cover
+	 */
+	public List<StringItem> getRequiredComponents() {
+		return List.of(requiredComponents);
+	}
+
+	/**
+	 * @param requiredComponents the names of the components every signature has to cover
+	 *   without any parameters, like "@method" or "Content-Digest"
+	 */
+	public VerificationPolicy setRequiredComponents(Collection<String> requiredComponents) {
+		return setRequiredComponentIdentifiers(requiredComponents.stream()
+			.map(StringItem::valueOf)
+			.collect(Collectors.toList()));
+	}
+
+	/**
+	 * @param requiredComponents the components every signature has to cover, with
+	 *   their parameters, like "content-digest";req
+	 */
+	public VerificationPolicy setRequiredComponentIdentifiers(Collection<StringItem> requiredComponents) {
+		this.requiredComponents = requiredComponents.stream()
+			.map(item -> item.get().startsWith("@") ? item : StringItem.valueOf(item.get().toLowerCase()).withParams(item.getParams()))
+			.collect(Collectors.toMap(StringItem::serialize, item -> item, (first, duplicate) -> first, LinkedHashMap::new))
+			.values()
+			.toArray(new StringItem[0]);
+		this.requiredParameters = Arrays.stream(this.requiredComponents)
+			.map(item -> serialize(item.getParams()))
+			.toArray(String[]::new);
+		return this;
+	}
+
+	/**
+	 * @return how long after it was created a signature is still accepted, or null for no limit
+	 */
+	public Duration getMaxAge() {
+		return maxAge;
+	}
+
+	/**
+	 * @param maxAge how long after it was created a signature is still accepted,
+	 *   or null for no limit; when set, signatures have to include created
+	 */
+	public VerificationPolicy setMaxAge(Duration maxAge) {
+		this.maxAge = maxAge;
+		return this;
+	}
+
+	/**
+	 * @return whether signatures have to include expires
+	 */
+	public boolean isExpiresRequired() {
+		return expiresRequired;
+	}
+
+	/**
+	 * @param expiresRequired whether signatures have to include expires
+	 */
+	public VerificationPolicy setExpiresRequired(boolean expiresRequired) {
+		this.expiresRequired = expiresRequired;
+		return this;
+	}
+
+	/**
+	 * @return how far the signer's clock may be off from ours
+	 */
+	public Duration getClockSkew() {
+		return clockSkew;
+	}
+
+	/**
+	 * @param clockSkew how far the signer's clock may be off from ours, applied to created and expires
+	 */
+	public VerificationPolicy setClockSkew(Duration clockSkew) {
+		this.clockSkew = clockSkew;
+		return this;
+	}
+
+}
@@ -0,0 +1,44 @@
+package io.bspk.httpsig.httpcore;
+
+import java.util.AbstractList;
+
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.MessageHeaders;
+
+import io.bspk.httpsig.ComponentProvider;
+
+/**
+ * Reads field values straight from the header arrays of an HttpCore message.
+ *
+ * @author jricher
+ *
+ */
+final class HttpCoreHeaders {
+
+	private HttpCoreHeaders() {
+	}
+
+	/**
+	 * @return the combined values of all headers with this name, or null if there are none
+	 */
+	static String getField(MessageHeaders message, String name) {
+		Header[] headers = message.getHeaders(name);
+		if (headers.length == 0) {
+			return null;
+		}
+
+		// a view over the array, so the values aren't copied into a list first
+		return ComponentProvider.combineFieldValues(new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				return headers[index].getValue();
+			}
+
+			@Override
+			public int size() {
+				return headers.length;
+			}
+		});
+	}
+
+}
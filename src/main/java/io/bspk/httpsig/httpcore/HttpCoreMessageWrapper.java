@@ -0,0 +1,27 @@
+package io.bspk.httpsig.httpcore;
+
+import org.apache.hc.core5.http.HttpMessage;
+
+import io.bspk.httpsig.MessageWrapper;
+import io.bspk.httpsig.SignatureParameters;
+
+/**
+ * Adds signatures to an Apache HttpCore 5 request or response.
+ *
+ * @author jricher
+ *
+ */
+public class HttpCoreMessageWrapper implements MessageWrapper {
+
+	private HttpMessage message;
+
+	public HttpCoreMessageWrapper(HttpMessage message) {
+		this.message = message;
+	}
+
+	@Override
+	public void addSignature(String signatureId, SignatureParameters signatureInput, byte[] signature) {
+		MessageWrapper.addSignatureFields(signatureId, signatureInput, signature, message::addHeader);
+	}
+
+}
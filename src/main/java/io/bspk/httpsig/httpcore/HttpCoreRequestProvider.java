@@ -0,0 +1,92 @@
+package io.bspk.httpsig.httpcore;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import org.apache.hc.core5.http.HttpRequest;
+
+import io.bspk.httpsig.UriRequestComponentProviderAdapter;
+
+/**
+ * Components of an Apache HttpCore 5 request, as used by HttpClient 5.
+ *
+ * The scheme, authority, and request target are read from the request itself
+ * when it has them, and the full URI is only put together when another
+ * component needs it.
+ *
+ * @author jricher
+ *
+ */
+public class HttpCoreRequestProvider extends UriRequestComponentProviderAdapter {
+
+	private HttpRequest request;
+
+	public HttpCoreRequestProvider(HttpRequest request) {
+		this.request = request;
+	}
+
+	@Override
+	protected URI createUri() {
+		try {
+			return request.getUri();
+		} catch (URISyntaxException e) {
+			throw new IllegalArgumentException("Invalid request URI", e);
+		}
+	}
+
+	@Override
+	public String getMethod() {
+		return request.getMethod();
+	}
+
+	@Override
+	public String getScheme() {
+		if (request.getScheme() != null) {
+			return request.getScheme();
+		} else {
+			return super.getScheme();
+		}
+	}
+
+	@Override
+	public String getAuthority() {
+		if (request.getAuthority() != null) {
+			return request.getAuthority().toString();
+		} else {
+			return super.getAuthority();
+		}
+	}
+
+	@Override
+	public String getRequestTarget() {
+		String path = request.getPath();
+		if (path != null && path.startsWith("/")) {
+			// already in origin form
+			return path;
+		} else {
+			return super.getRequestTarget();
+		}
+	}
+
+	@Override
+	protected String getRawQuery() {
+		String path = request.getPath();
+		if (path != null && path.startsWith("/")) {
+			int query = path.indexOf('?');
+			return query < 0 ? null : path.substring(query + 1);
+		} else {
+			return super.getRawQuery();
+		}
+	}
+
+	@Override
+	public String getStatus() {
+		throw new UnsupportedOperationException("Requests cannot return a status code");
+	}
+
+	@Override
+	public String getField(String name) {
+		return HttpCoreHeaders.getField(request, name);
+	}
+
+}
@@ -0,0 +1,42 @@
+package io.bspk.httpsig.httpcore;
+
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+
+import io.bspk.httpsig.ResponseComponentProviderAdapter;
+
+/**
+ * Components of an Apache HttpCore 5 response, as used by HttpClient 5.
+ *
+ * @author jricher
+ *
+ */
+public class HttpCoreResponseProvider extends ResponseComponentProviderAdapter {
+
+	private HttpResponse response;
+
+	public HttpCoreResponseProvider(HttpResponse response) {
+		this.response = response;
+	}
+
+	/**
+	 * @param request the request that got this response, for components marked with "req"
+	 */
+	public HttpCoreResponseProvider(HttpResponse response, HttpRequest request) {
+		this(response);
+		if (request != null) {
+			setRequestComponentProvider(new HttpCoreRequestProvider(request));
+		}
+	}
+
+	@Override
+	public String getStatus() {
+		return String.valueOf(response.getCode());
+	}
+
+	@Override
+	public String getField(String name) {
+		return HttpCoreHeaders.getField(response, name);
+	}
+
+}
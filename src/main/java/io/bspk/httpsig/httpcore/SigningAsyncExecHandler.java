@@ -0,0 +1,304 @@
+package io.bspk.httpsig.httpcore;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.bspk.httpsig.MessageVerifier;
+import io.bspk.httpsig.SignatureParameters;
+import io.bspk.httpsig.SigningProfile;
+
+/**
+ * Signs every outgoing request from an HttpClient 5 async client with a
+ * {@link SigningProfile}, and optionally verifies the signatures on the
+ * responses, without running any cryptography on the I/O reactor threads.
+ *
+ * The request is signed on the given executor, which then carries on with the
+ * rest of the exec chain. When a verifier is set, each response is verified on
+ * the same executor and is only handed on once it's been checked. Any body
+ * that arrives in the meantime is held, and no more is asked for until the
+ * verification is done, so at most the connection's initial window is buffered.
+ * The result for each label is stored in the context under
+ * {@link VerifyingResponseInterceptor#RESULTS_ATTRIBUTE}. If verified
+ * responses are required, a response that doesn't pass
+ * {@link MessageVerifier#isVerified(Map)}, such as one with no signatures or
+ * with a failed required label, fails the exchange with an HttpException.
+ *
+ * Add it to the exec chain after the protocol handler, so that the request
+ * interceptors have already set their headers:
+ *
+ * <pre>
+ * CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+ *   .addExecInterceptorAfter(ChainElement.PROTOCOL.name(), "httpsig",
+ *     new SigningAsyncExecHandler(profile, executor).setVerifier(messageVerifier).setRequired(true))
+ *   .build();
+ * </pre>
+ *
+ * Configure a handler up front; after that it can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class SigningAsyncExecHandler implements AsyncExecChainHandler {
+
+	private static final Logger log = LoggerFactory.getLogger(SigningAsyncExecHandler.class);
+
+	private final SigningProfile profile;
+	private final Executor executor;
+
+	private MessageVerifier verifier;
+	private boolean required = false;
+
+	public SigningAsyncExecHandler(SigningProfile profile, Executor executor) {
+		this.profile = profile;
+		this.executor = executor;
+	}
+
+	@Override
+	public void execute(HttpRequest request, AsyncEntityProducer entityProducer, AsyncExecChain.Scope scope,
+		AsyncExecChain chain, AsyncExecCallback callback) throws HttpException, IOException {
+
+		executor.execute(() -> {
+			try {
+				SignatureParameters sigParams = profile.sign(new HttpCoreRequestProvider(request), new HttpCoreMessageWrapper(request));
+				if (sigParams == null) {
+					log.warn("Could not sign request {} {}", request.getMethod(), request.getPath());
+					callback.failed(new HttpException("Could not sign request"));
+					return;
+				}
+
+				chain.proceed(request, entityProducer, scope,
+					verifier == null ? callback : new VerifyingCallback(request, scope.clientContext, callback));
+			} catch (HttpException | IOException | RuntimeException e) {
+				callback.failed(e);
+			}
+		});
+	}
+
+	/**
+	 * Holds back the response until its signatures have been verified on the executor.
+	 */
+	private class VerifyingCallback implements AsyncExecCallback, AsyncDataConsumer {
+
+		private final HttpRequest request;
+		private final HttpContext context;
+		private final AsyncExecCallback next;
+
+		private HttpResponse response;
+		private EntityDetails entityDetails;
+
+		// everything that happens before the verification is done
+		private List<ByteBuffer> buffered = new ArrayList<>();
+		private CapacityChannel capacityChannel;
+		private List<? extends Header> trailers;
+		private boolean ended = false;
+		private boolean completed = false;
+		private boolean released = false;
+
+		private boolean verified = false;
+		private boolean failed = false;
+		private AsyncDataConsumer consumer;
+
+		private VerifyingCallback(HttpRequest request, HttpContext context, AsyncExecCallback next) {
+			this.request = request;
+			this.context = context;
+			this.next = next;
+		}
+
+		@Override
+		public AsyncDataConsumer handleResponse(HttpResponse response, EntityDetails entityDetails) throws HttpException, IOException {
+			this.response = response;
+			this.entityDetails = entityDetails;
+
+			executor.execute(this::verify);
+
+			return entityDetails == null ? null : this;
+		}
+
+		@Override
+		public void handleInformationResponse(HttpResponse response) throws HttpException, IOException {
+			next.handleInformationResponse(response);
+		}
+
+		private void verify() {
+			Map<String, Boolean> results;
+			try {
+				results = verifier.verify(new HttpCoreResponseProvider(response, request));
+			} catch (RuntimeException e) {
+				fail(e);
+				return;
+			}
+			context.setAttribute(VerifyingResponseInterceptor.RESULTS_ATTRIBUTE, results);
+
+			if (required && !MessageVerifier.isVerified(results)) {
+				fail(new HttpException("Response signature could not be verified: " + results));
+				return;
+			}
+
+			synchronized (this) {
+				if (failed) {
+					return;
+				}
+				try {
+					consumer = next.handleResponse(response, entityDetails);
+					if (consumer != null) {
+						if (capacityChannel != null) {
+							consumer.updateCapacity(capacityChannel);
+						}
+						for (ByteBuffer data : buffered) {
+							consumer.consume(data);
+						}
+						if (ended) {
+							consumer.streamEnd(trailers);
+						}
+						if (released) {
+							consumer.releaseResources();
+						}
+					}
+					buffered = null;
+					verified = true;
+
+					if (completed) {
+						next.completed();
+					}
+				} catch (HttpException | IOException | RuntimeException e) {
+					fail(e);
+				}
+			}
+		}
+
+		private synchronized void fail(Exception e) {
+			if (!failed) {
+				failed = true;
+				buffered = null;
+				next.failed(e);
+			}
+		}
+
+		@Override
+		public synchronized void completed() {
+			if (failed) {
+				return;
+			} else if (verified) {
+				next.completed();
+			} else {
+				completed = true;
+			}
+		}
+
+		@Override
+		public void failed(Exception cause) {
+			fail(cause);
+		}
+
+		@Override
+		public synchronized void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+			if (verified) {
+				if (consumer != null) {
+					consumer.updateCapacity(capacityChannel);
+				}
+			} else {
+				// don't ask for more until there's somewhere to put it
+				this.capacityChannel = capacityChannel;
+			}
+		}
+
+		@Override
+		public synchronized void consume(ByteBuffer src) throws IOException {
+			if (failed) {
+				src.position(src.limit());
+			} else if (verified) {
+				if (consumer != null) {
+					consumer.consume(src);
+				}
+			} else {
+				// the buffer is only ours until we return
+				ByteBuffer copy = ByteBuffer.allocate(src.remaining());
+				copy.put(src);
+				copy.flip();
+				buffered.add(copy);
+			}
+		}
+
+		@Override
+		public synchronized void streamEnd(List<? extends Header> trailers) throws HttpException, IOException {
+			if (failed) {
+				return;
+			} else if (verified) {
+				if (consumer != null) {
+					consumer.streamEnd(trailers);
+				}
+			} else {
+				this.trailers = trailers;
+				this.ended = true;
+			}
+		}
+
+		@Override
+		public synchronized void releaseResources() {
+			if (consumer != null) {
+				consumer.releaseResources();
+			} else {
+				// the exchange can finish before the verification does
+				released = true;
+			}
+		}
+
+	}
+
+	/**
+	 * @return the profile every request is signed with
+	 */
+	public SigningProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @return the verifier responses are checked with, or null if they aren't verified
+	 */
+	public MessageVerifier getVerifier() {
+		return verifier;
+	}
+
+	/**
+	 * @param verifier the verifier responses are checked with, or null to not verify them
+	 */
+	public SigningAsyncExecHandler setVerifier(MessageVerifier verifier) {
+		this.verifier = verifier;
+		return this;
+	}
+
+	/**
+	 * @return whether responses that aren't verified fail
+	 */
+	public boolean isRequired() {
+		return required;
+	}
+
+	/**
+	 * @param required whether responses that aren't verified fail
+	 */
+	public SigningAsyncExecHandler setRequired(boolean required) {
+		this.required = required;
+		return this;
+	}
+
+}
@@ -0,0 +1,61 @@
+package io.bspk.httpsig.httpcore;
+
+import java.io.IOException;
+
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpRequestInterceptor;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.bspk.httpsig.SignatureParameters;
+import io.bspk.httpsig.SigningProfile;
+
+/**
+ * Signs every outgoing request with a {@link SigningProfile}. Add it to the
+ * protocol chain of an HttpClient 5 classic client, such as with
+ * {@code HttpClientBuilder.addRequestInterceptorLast()}, so that it runs
+ * after the other interceptors have set their headers.
+ *
+ * The signature is made on the thread that runs the interceptor. On an async
+ * client that's an I/O reactor thread, where RSA signing blocks every other
+ * exchange on that thread, so use a {@link SigningAsyncExecHandler} there instead.
+ *
+ * The request body isn't available here, so a Content-Digest field has to be
+ * added before this interceptor runs if it's going to be covered. A request
+ * that can't be signed fails with an HttpException instead of going out unsigned.
+ *
+ * Interceptors can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class SigningRequestInterceptor implements HttpRequestInterceptor {
+
+	private static final Logger log = LoggerFactory.getLogger(SigningRequestInterceptor.class);
+
+	private final SigningProfile profile;
+
+	public SigningRequestInterceptor(SigningProfile profile) {
+		this.profile = profile;
+	}
+
+	@Override
+	public void process(HttpRequest request, EntityDetails entity, HttpContext context) throws HttpException, IOException {
+		SignatureParameters sigParams = profile.sign(new HttpCoreRequestProvider(request), new HttpCoreMessageWrapper(request));
+		if (sigParams == null) {
+			log.warn("Could not sign request {} {}", request.getMethod(), request.getPath());
+			throw new HttpException("Could not sign request");
+		}
+	}
+
+	/**
+	 * @return the profile every request is signed with
+	 */
+	public SigningProfile getProfile() {
+		return profile;
+	}
+
+}
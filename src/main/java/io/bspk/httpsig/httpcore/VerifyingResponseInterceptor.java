@@ -0,0 +1,74 @@
+package io.bspk.httpsig.httpcore;
+
+import java.io.IOException;
+import java.util.Map;
+
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+
+import io.bspk.httpsig.MessageVerifier;
+
+/**
+ * Verifies the signatures on every incoming response with a {@link MessageVerifier},
+ * as part of the client's protocol chain, once the response head has arrived and
+ * before its body is handed to the consumer; the body itself is never read.
+ *
+ * The verification runs on the thread that runs the interceptor. On an async
+ * client that's an I/O reactor thread, where it blocks every other exchange on
+ * that thread, so use a {@link SigningAsyncExecHandler} with a verifier there instead.
+ *
+ * Components of the request, marked with "req", come from the request in the
+ * context. The result for each label is stored in the context under
+ * {@link #RESULTS_ATTRIBUTE}. If verified responses are required, a response
+ * that doesn't pass {@link MessageVerifier#isVerified(Map)}, such as one with no
+ * signatures or with a failed required label, fails with an HttpException.
+ *
+ * Configure an interceptor up front; after that it can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class VerifyingResponseInterceptor implements HttpResponseInterceptor {
+
+	public static final String RESULTS_ATTRIBUTE = VerifyingResponseInterceptor.class.getName() + ".results";
+
+	private final MessageVerifier verifier;
+
+	private boolean required = false;
+
+	public VerifyingResponseInterceptor(MessageVerifier verifier) {
+		this.verifier = verifier;
+	}
+
+	@Override
+	public void process(HttpResponse response, EntityDetails entity, HttpContext context) throws HttpException, IOException {
+		HttpCoreContext coreContext = HttpCoreContext.adapt(context);
+
+		Map<String, Boolean> results = verifier.verify(new HttpCoreResponseProvider(response, coreContext.getRequest()));
+		coreContext.setAttribute(RESULTS_ATTRIBUTE, results);
+
+		if (required && !MessageVerifier.isVerified(results)) {
+			throw new HttpException("Response signature could not be verified: " + results);
+		}
+	}
+
+	/**
+	 * @return whether responses that aren't verified fail
+	 */
+	public boolean isRequired() {
+		return required;
+	}
+
+	/**
+	 * @param required whether responses that aren't verified fail
+	 */
+	public VerifyingResponseInterceptor setRequired(boolean required) {
+		this.required = required;
+		return this;
+	}
+
+}
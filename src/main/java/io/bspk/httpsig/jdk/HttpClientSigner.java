@@ -0,0 +1,112 @@
+package io.bspk.httpsig.jdk;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import io.bspk.httpsig.SignatureParameters;
+import io.bspk.httpsig.SigningProfile;
+
+/**
+ * Signs requests for the JDK's {@code java.net.http.HttpClient} with a {@link SigningProfile}.
+ *
+ * Requests can't be changed once they're built, so signing copies the request
+ * into a new builder and adds the Signature and Signature-Input fields to that.
+ * The asynchronous methods do the signing on the given executor, never on the
+ * client's own threads, so the signature can be put in front of {@code sendAsync}:
+ *
+ * <pre>
+ * signer.sendAsync(client, request, BodyHandlers.ofString())
+ *   .thenAccept(response -&gt; ...);
+ * </pre>
+ *
+ * Signers can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class HttpClientSigner {
+
+	private final SigningProfile profile;
+	private final Executor executor;
+
+	/**
+	 * Sign asynchronously on the common fork-join pool.
+	 */
+	public HttpClientSigner(SigningProfile profile) {
+		this(profile, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Sign asynchronously on the given executor.
+	 */
+	public HttpClientSigner(SigningProfile profile, Executor executor) {
+		this.profile = profile;
+		this.executor = executor;
+	}
+
+	/**
+	 * Sign the request on the calling thread.
+	 *
+	 * @return a builder for a copy of the request with the signature added, which can be changed further before it's built
+	 * @throws IllegalStateException if the request couldn't be signed
+	 */
+	public HttpRequest.Builder sign(HttpRequest request) {
+		HttpRequest.Builder builder = copy(request);
+
+		SignatureParameters sigParams = profile.sign(new HttpRequestProvider(request), new HttpRequestBuilderMessageWrapper(builder));
+		if (sigParams == null) {
+			throw new IllegalStateException("Could not sign request to " + request.uri());
+		}
+
+		return builder;
+	}
+
+	/**
+	 * Sign the request on the executor.
+	 *
+	 * @return the signed request, or a future that fails if it couldn't be signed
+	 */
+	public CompletableFuture<HttpRequest> signAsync(HttpRequest request) {
+		return CompletableFuture.supplyAsync(() -> sign(request).build(), executor);
+	}
+
+	/**
+	 * Sign the request on the executor, then send it with the client.
+	 */
+	public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpClient client, HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+		return signAsync(request)
+			.thenCompose(signed -> client.sendAsync(signed, responseBodyHandler));
+	}
+
+	/**
+	 * Copy everything that can be set on a builder from the request.
+	 */
+	private static HttpRequest.Builder copy(HttpRequest request) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(request.uri())
+			.method(request.method(), request.bodyPublisher().orElse(HttpRequest.BodyPublishers.noBody()))
+			.expectContinue(request.expectContinue());
+
+		request.timeout().ifPresent(builder::timeout);
+		request.version().ifPresent(builder::version);
+
+		request.headers().map().forEach((name, values) -> {
+			for (String value : values) {
+				builder.header(name, value);
+			}
+		});
+
+		return builder;
+	}
+
+	/**
+	 * @return the profile every request is signed with
+	 */
+	public SigningProfile getProfile() {
+		return profile;
+	}
+
+}
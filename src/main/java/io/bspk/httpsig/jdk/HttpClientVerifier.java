@@ -0,0 +1,45 @@
+package io.bspk.httpsig.jdk;
+
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import io.bspk.httpsig.MessageVerifier;
+
+/**
+ * Verifies the signatures on responses from the JDK's {@code java.net.http.HttpClient}
+ * with a {@link MessageVerifier}, on the given executor instead of the client's own
+ * threads:
+ *
+ * <pre>
+ * client.sendAsync(request, BodyHandlers.ofString())
+ *   .thenCompose(response -&gt; verifier.verify(response)
+ *     .thenApply(results -&gt; ...));
+ * </pre>
+ *
+ * Verifiers can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class HttpClientVerifier {
+
+	private final MessageVerifier verifier;
+	private final Executor executor;
+
+	public HttpClientVerifier(MessageVerifier verifier, Executor executor) {
+		this.verifier = verifier;
+		this.executor = executor;
+	}
+
+	/**
+	 * Verify all signatures on the response, as {@link MessageVerifier#verify(io.bspk.httpsig.ComponentProvider)} does.
+	 *
+	 * @return the result for each label
+	 */
+	public CompletableFuture<Map<String, Boolean>> verify(HttpResponse<?> response) {
+		return CompletableFuture.supplyAsync(() -> verifier.verify(new HttpResponseProvider(response)), executor);
+	}
+
+}
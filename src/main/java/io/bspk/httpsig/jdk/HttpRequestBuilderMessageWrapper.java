@@ -0,0 +1,28 @@
+package io.bspk.httpsig.jdk;
+
+import java.net.http.HttpRequest;
+
+import io.bspk.httpsig.MessageWrapper;
+import io.bspk.httpsig.SignatureParameters;
+
+/**
+ * Adds signatures to a request builder for the JDK's {@code java.net.http.HttpClient},
+ * since the requests themselves can't be changed.
+ *
+ * @author jricher
+ *
+ */
+public class HttpRequestBuilderMessageWrapper implements MessageWrapper {
+
+	private HttpRequest.Builder builder;
+
+	public HttpRequestBuilderMessageWrapper(HttpRequest.Builder builder) {
+		this.builder = builder;
+	}
+
+	@Override
+	public void addSignature(String signatureId, SignatureParameters signatureInput, byte[] signature) {
+		MessageWrapper.addSignatureFields(signatureId, signatureInput, signature, builder::header);
+	}
+
+}
@@ -0,0 +1,38 @@
+package io.bspk.httpsig.jdk;
+
+import java.net.http.HttpRequest;
+
+import io.bspk.httpsig.ComponentProvider;
+import io.bspk.httpsig.UriRequestComponentProviderAdapter;
+
+/**
+ * Components of a request for the JDK's {@code java.net.http.HttpClient}.
+ *
+ * @author jricher
+ *
+ */
+public class HttpRequestProvider extends UriRequestComponentProviderAdapter {
+
+	private HttpRequest request;
+
+	public HttpRequestProvider(HttpRequest request) {
+		super(request.uri());
+		this.request = request;
+	}
+
+	@Override
+	public String getMethod() {
+		return request.method();
+	}
+
+	@Override
+	public String getStatus() {
+		throw new UnsupportedOperationException("Requests cannot return a status code");
+	}
+
+	@Override
+	public String getField(String name) {
+		return ComponentProvider.combineFieldValues(request.headers().allValues(name));
+	}
+
+}
@@ -0,0 +1,36 @@
+package io.bspk.httpsig.jdk;
+
+import java.net.http.HttpResponse;
+
+import io.bspk.httpsig.ComponentProvider;
+import io.bspk.httpsig.ResponseComponentProviderAdapter;
+
+/**
+ * Components of a response from the JDK's {@code java.net.http.HttpClient}.
+ *
+ * Components of the request, marked with "req", are taken from the request
+ * that got this response.
+ *
+ * @author jricher
+ *
+ */
+public class HttpResponseProvider extends ResponseComponentProviderAdapter {
+
+	private HttpResponse<?> response;
+
+	public HttpResponseProvider(HttpResponse<?> response) {
+		this.response = response;
+		setRequestComponentProvider(new HttpRequestProvider(response.request()));
+	}
+
+	@Override
+	public String getStatus() {
+		return String.valueOf(response.statusCode());
+	}
+
+	@Override
+	public String getField(String name) {
+		return ComponentProvider.combineFieldValues(response.headers().allValues(name));
+	}
+
+}
@@ -9,6 +9,13 @@ import io.bspk.httpsig.ComponentProvider;
 import io.bspk.httpsig.UriRequestComponentProviderAdapter;
 
 /**
+ * Components of a request on a servlet container.
+ *
+ * The derived components are read straight from the servlet request. The full
+ * request URI is only parsed, once, when the decoded path or query is needed
+ * and it actually contains percent-encoded characters, so signatures that don't
+ * cover those never parse it.
+ *
  * @author jricher
  *
  */
@@ -17,16 +24,85 @@ public class HttpServletRequestProvider extends UriRequestComponentProviderAdapt
 	private HttpServletRequest request;
 
 	public HttpServletRequestProvider(HttpServletRequest request) {
-		super(URI.create(request.getRequestURL().toString()
-			+ (request.getQueryString() != null ? "?" + request.getQueryString() : "")));
 		this.request = request;
 	}
 
+	@Override
+	protected URI createUri() {
+		return URI.create(getTargetUri());
+	}
+
 	@Override
 	public String getMethod() {
 		return request.getMethod();
 	}
 
+	@Override
+	public String getScheme() {
+		return request.getScheme();
+	}
+
+	@Override
+	public String getAuthority() {
+		// the same rules the container uses to build getRequestURL()
+		String scheme = request.getScheme();
+		int port = request.getServerPort();
+		if (port <= 0
+			|| (scheme.equals("http") && port == 80)
+			|| (scheme.equals("https") && port == 443)) {
+			return request.getServerName();
+		} else {
+			return request.getServerName() + ":" + port;
+		}
+	}
+
+	@Override
+	public String getTargetUri() {
+		String query = request.getQueryString();
+		StringBuffer url = request.getRequestURL();
+		if (query != null) {
+			url.append('?').append(query);
+		}
+		return url.toString();
+	}
+
+	@Override
+	public String getRequestTarget() {
+		String query = request.getQueryString();
+		if (query != null) {
+			return request.getRequestURI() + "?" + query;
+		} else {
+			return request.getRequestURI();
+		}
+	}
+
+	@Override
+	public String getPath() {
+		String path = request.getRequestURI();
+		if (path.indexOf('%') < 0) {
+			// nothing to decode
+			return path;
+		} else {
+			return super.getPath();
+		}
+	}
+
+	@Override
+	public String getQuery() {
+		String query = request.getQueryString();
+		if (query != null && query.indexOf('%') < 0) {
+			// nothing to decode
+			return "?" + query;
+		} else {
+			return super.getQuery();
+		}
+	}
+
+	@Override
+	protected String getRawQuery() {
+		return request.getQueryString();
+	}
+
 	@Override
 	public String getStatus() {
 		throw new UnsupportedOperationException("Requests cannot return a status code");
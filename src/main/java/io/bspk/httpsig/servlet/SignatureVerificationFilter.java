@@ -0,0 +1,229 @@
+package io.bspk.httpsig.servlet;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.bspk.httpsig.HttpVerify;
+import io.bspk.httpsig.KeyResolver;
+import io.bspk.httpsig.MemoizingComponentProvider;
+import io.bspk.httpsig.SignatureBaseBuilder;
+import io.bspk.httpsig.SignatureField;
+import io.bspk.httpsig.SignatureParameters;
+import io.bspk.httpsig.VerificationPolicy;
+import io.bspk.httpsig.VerificationPolicy.Reason;
+
+/**
+ * Verifies the HTTP message signature on incoming requests and turns away any
+ * request without a good one.
+ *
+ * Each signature is checked in order of cost: first the {@link VerificationPolicy}
+ * against the signature parameters, then the key lookup and the algorithm of the
+ * key, and only then the signature base and the cryptography. The request body is
+ * never read. A request passes if any of its signatures, or the one with the
+ * configured label, passes all of these; its parameters are then stored in the
+ * request attribute {@link #SIGNATURE_PARAMETERS_ATTRIBUTE}. Otherwise the
+ * request gets a 401 response and the reason the first signature failed is
+ * counted.
+ *
+ * Configure a filter up front; after that it can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class SignatureVerificationFilter implements Filter {
+
+	private static final Logger log = LoggerFactory.getLogger(SignatureVerificationFilter.class);
+
+	public static final String SIGNATURE_PARAMETERS_ATTRIBUTE = SignatureVerificationFilter.class.getName() + ".signatureParameters";
+
+	private final KeyResolver keyResolver;
+	private final VerificationPolicy policy;
+
+	private final Map<Reason, LongAdder> rejections = new EnumMap<>(Reason.class);
+
+	private String label;
+	private Clock clock = Clock.systemUTC();
+
+	public SignatureVerificationFilter(KeyResolver keyResolver, VerificationPolicy policy) {
+		this.keyResolver = keyResolver;
+		this.policy = policy;
+		for (Reason reason : Reason.values()) {
+			rejections.put(reason, new LongAdder());
+		}
+	}
+
+	@Override
+	public void init(FilterConfig filterConfig) throws ServletException {
+		// nothing to set up, everything is passed to the constructor
+	}
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+		if (!(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)) {
+			chain.doFilter(request, response);
+			return;
+		}
+
+		HttpServletRequest httpRequest = (HttpServletRequest) request;
+		HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+		MemoizingComponentProvider ctx = new MemoizingComponentProvider(new HttpServletRequestProvider(httpRequest));
+
+		Reason reason = Reason.MISSING_SIGNATURE;
+		SignatureParameters verified = null;
+
+		String signatureInput = ctx.getField("signature-input");
+		String signature = ctx.getField("signature");
+		if (signatureInput != null && signature != null) {
+			SignatureField inputs = null;
+			SignatureField signatures = null;
+			try {
+				inputs = SignatureField.parse(signatureInput);
+				signatures = SignatureField.parse(signature);
+			} catch (IllegalArgumentException e) {
+				// including the structured field ParseException
+				log.debug("Could not parse signature fields", e);
+				reason = Reason.MALFORMED_SIGNATURE;
+			}
+
+			if (inputs != null && signatures != null) {
+				Reason first = Reason.MISSING_SIGNATURE;
+				boolean checked = false;
+				for (String candidate : label == null ? inputs.getLabels() : Collections.singleton(label)) {
+					Reason failed;
+					SignatureParameters sigParams = null;
+					try {
+						sigParams = inputs.getSignatureParameters(candidate);
+						failed = sigParams == null
+							? Reason.MISSING_SIGNATURE
+							: verify(sigParams, signatures.getSignature(candidate), ctx);
+					} catch (IllegalArgumentException e) {
+						// one bad label doesn't spoil the others
+						log.debug("Could not parse signature {}", candidate, e);
+						failed = Reason.MALFORMED_SIGNATURE;
+					}
+					if (failed == null) {
+						verified = sigParams;
+						break;
+					} else if (!checked) {
+						first = failed;
+					}
+					checked = true;
+				}
+				reason = first;
+			}
+		}
+
+		if (verified != null) {
+			httpRequest.setAttribute(SIGNATURE_PARAMETERS_ATTRIBUTE, verified);
+			chain.doFilter(request, response);
+		} else {
+			rejections.get(reason).increment();
+			log.debug("Rejected request to {}: {}", httpRequest.getRequestURI(), reason);
+			httpResponse.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+		}
+	}
+
+	/**
+	 * Run the checks for one signature, cheapest first.
+	 *
+	 * @return the reason it failed, or null if it verifies
+	 */
+	private Reason verify(SignatureParameters sigParams, byte[] signature, MemoizingComponentProvider ctx) {
+		if (signature == null) {
+			return Reason.MISSING_SIGNATURE;
+		}
+
+		Reason failed = policy.check(sigParams, Instant.now(clock));
+		if (failed != null) {
+			return failed;
+		}
+
+		HttpVerify verifier = keyResolver.resolve(sigParams);
+		if (verifier == null) {
+			return Reason.UNKNOWN_KEY;
+		}
+		if (!policy.isAllowed(verifier.getAlg())) {
+			return Reason.ALGORITHM_NOT_ALLOWED;
+		}
+
+		try {
+			if (verifier.verify(new SignatureBaseBuilder(sigParams, ctx), signature)) {
+				return null;
+			}
+		} catch (RuntimeException e) {
+			// usually a covered component that isn't in the request
+			log.warn("Could not create signature base", e);
+		}
+		return Reason.INVALID_SIGNATURE;
+	}
+
+	@Override
+	public void destroy() {
+		// nothing to clean up
+	}
+
+	/**
+	 * @return the number of rejected requests for each reason so far
+	 */
+	public Map<Reason, Long> getRejections() {
+		Map<Reason, Long> counts = new EnumMap<>(Reason.class);
+		rejections.forEach((reason, count) -> counts.put(reason, count.sum()));
+		return counts;
+	}
+
+	/**
+	 * @return the number of requests rejected for this reason so far
+	 */
+	public long getRejections(Reason reason) {
+		return rejections.get(reason).sum();
+	}
+
+	/**
+	 * @return the label of the signature to verify, or null to accept any signature on the request
+	 */
+	public String getLabel() {
+		return label;
+	}
+
+	/**
+	 * @param label the label of the signature to verify, or null to accept any signature on the request
+	 */
+	public SignatureVerificationFilter setLabel(String label) {
+		this.label = label;
+		return this;
+	}
+
+	/**
+	 * @return the clock used to check created and expires
+	 */
+	public Clock getClock() {
+		return clock;
+	}
+
+	/**
+	 * @param clock the clock used to check created and expires
+	 */
+	public SignatureVerificationFilter setClock(Clock clock) {
+		this.clock = clock;
+		return this;
+	}
+
+}
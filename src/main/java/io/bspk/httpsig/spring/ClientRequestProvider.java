@@ -0,0 +1,38 @@
+package io.bspk.httpsig.spring;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+
+import io.bspk.httpsig.ComponentProvider;
+import io.bspk.httpsig.UriRequestComponentProviderAdapter;
+
+/**
+ * Components of a request from the reactive Spring WebClient.
+ *
+ * @author jricher
+ *
+ */
+public class ClientRequestProvider extends UriRequestComponentProviderAdapter {
+
+	private ClientRequest request;
+
+	public ClientRequestProvider(ClientRequest request) {
+		super(request.url());
+		this.request = request;
+	}
+
+	@Override
+	public String getMethod() {
+		return request.method().name();
+	}
+
+	@Override
+	public String getStatus() {
+		throw new UnsupportedOperationException("Requests cannot return a status code");
+	}
+
+	@Override
+	public String getField(String name) {
+		return ComponentProvider.combineFieldValues(request.headers().get(name));
+	}
+
+}
@@ -0,0 +1,44 @@
+package io.bspk.httpsig.spring;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+
+import io.bspk.httpsig.ComponentProvider;
+import io.bspk.httpsig.ResponseComponentProviderAdapter;
+
+/**
+ * Components of a response to the reactive Spring WebClient. Only the status
+ * and headers are used, the body is never read.
+ *
+ * @author jricher
+ *
+ */
+public class ClientResponseProvider extends ResponseComponentProviderAdapter {
+
+	private ClientResponse response;
+
+	public ClientResponseProvider(ClientResponse response) {
+		this.response = response;
+	}
+
+	/**
+	 * @param request the request that got this response, for components marked with "req"
+	 */
+	public ClientResponseProvider(ClientResponse response, ClientRequest request) {
+		this(response);
+		if (request != null) {
+			setRequestComponentProvider(new ClientRequestProvider(request));
+		}
+	}
+
+	@Override
+	public String getStatus() {
+		return String.valueOf(response.rawStatusCode());
+	}
+
+	@Override
+	public String getField(String name) {
+		return ComponentProvider.combineFieldValues(response.headers().header(name));
+	}
+
+}
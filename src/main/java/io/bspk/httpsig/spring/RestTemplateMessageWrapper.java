@@ -1,9 +1,6 @@
 package io.bspk.httpsig.spring;
 
-import java.util.Map;
-
-import org.greenbytes.http.sfv.ByteSequenceItem;
-import org.greenbytes.http.sfv.Dictionary;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpRequest;
 
 import io.bspk.httpsig.MessageWrapper;
@@ -15,23 +12,22 @@ import io.bspk.httpsig.SignatureParameters;
  */
 public class RestTemplateMessageWrapper implements MessageWrapper {
 
-	private HttpRequest request;
+	private HttpHeaders headers;
 
 	public RestTemplateMessageWrapper(HttpRequest request) {
-		this.request = request;
+		this(request.getHeaders());
+	}
+
+	/**
+	 * Add the signature to a set of headers, such as for a request that can't be changed directly.
+	 */
+	public RestTemplateMessageWrapper(HttpHeaders headers) {
+		this.headers = headers;
 	}
 
 	@Override
 	public void addSignature(String signatureId, SignatureParameters signatureInput, byte[] signature) {
-		Dictionary sigHeader = Dictionary.valueOf(Map.of(
-			signatureId, ByteSequenceItem.valueOf(signature)));
-
-		Dictionary sigInputHeader = Dictionary.valueOf(Map.of(
-			signatureId, signatureInput.toComponentValue()));
-
-		request.getHeaders().add("Signature", sigHeader.serialize());
-		request.getHeaders().add("Signature-Input", sigInputHeader.serialize());
+		MessageWrapper.addSignatureFields(signatureId, signatureInput, signature, headers::add);
 	}
 
-
 }
@@ -1,15 +1,11 @@
 package io.bspk.httpsig.spring;
 
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import org.springframework.http.HttpRequest;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import io.bspk.httpsig.ComponentProvider;
+import io.bspk.httpsig.QueryParameterIndex;
 
 /**
  * @author jricher
@@ -18,7 +14,7 @@ import io.bspk.httpsig.ComponentProvider;
 public class RestTemplateRequestProvider implements ComponentProvider {
 
 	private HttpRequest request;
-	private Map<String, Integer> counters;
+	private QueryParameterIndex queryParameterIndex;
 
 	public RestTemplateRequestProvider(HttpRequest request) {
 		this.request = request;
@@ -68,27 +64,10 @@ public class RestTemplateRequestProvider implements ComponentProvider {
 
 	@Override
 	public String getQueryParams(String name) {
-		// parse as URL query parameters
-		MultiValueMap<String,String> queryParams = UriComponentsBuilder.fromHttpRequest(request).build().getQueryParams();
-
-		List<String> values = queryParams.get(name);
-
-		if (values.size() == 1) {
-			// no problem, return one
-			return values.get(0);
-		} else if (values.size() == 0) {
-			throw new IllegalArgumentException("Could not find query parameter named " + name);
-		} else {
-			if (counters == null) {
-				// we have to count the accesses, initialize all to zero
-				counters = queryParams.keySet().stream()
-					.collect(Collectors.toMap(Function.identity(), (k) -> 0));
-			}
-			Integer count = counters.get(name); // get the current count (ie: 1)
-			counters.put(name, count + 1); // increment the count (ie: 2)
-			return values.get(count); // return the value at the position before the update (ie: 1)
+		if (queryParameterIndex == null) {
+			queryParameterIndex = QueryParameterIndex.parse(request.getURI().getRawQuery());
 		}
-
+		return queryParameterIndex.getValue(name);
 	}
 
 	@Override
@@ -0,0 +1,132 @@
+package io.bspk.httpsig.spring;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.bspk.httpsig.ContentDigest;
+import io.bspk.httpsig.SignatureParameters;
+import io.bspk.httpsig.SigningProfile;
+
+/**
+ * Signs every outgoing RestTemplate request with a {@link SigningProfile}.
+ *
+ * The profile already holds the prepared signer, compiled components, and
+ * serialized parameters, so nothing is set up per request besides the thin
+ * request wrappers. If a {@link ContentDigest} is set, a Content-Digest field
+ * is computed from the body bytes the interceptor is handed, before signing,
+ * unless the request already has one. A request that can't be signed fails
+ * with an IOException instead of going out unsigned.
+ *
+ * Configure an interceptor up front; after that it can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class SigningClientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+	private static final Logger log = LoggerFactory.getLogger(SigningClientHttpRequestInterceptor.class);
+
+	private final SigningProfile profile;
+
+	private ContentDigest contentDigest;
+	private SigningListener listener;
+
+	public SigningClientHttpRequestInterceptor(SigningProfile profile) {
+		this.profile = profile;
+	}
+
+	@Override
+	public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+		long digestNanos = 0;
+		if (contentDigest != null && !request.getHeaders().containsKey(ContentDigest.FIELD_NAME)) {
+			long start = System.nanoTime();
+			request.getHeaders().set(ContentDigest.FIELD_NAME, contentDigest.createFieldValue(body));
+			digestNanos = System.nanoTime() - start;
+		}
+
+		long start = System.nanoTime();
+		SignatureParameters sigParams;
+		try {
+			sigParams = profile.sign(new RestTemplateRequestProvider(request), new RestTemplateMessageWrapper(request));
+		} catch (RuntimeException e) {
+			// such as a covered component that isn't in the request
+			if (listener != null) {
+				listener.signed(request, digestNanos, System.nanoTime() - start, false);
+			}
+			log.warn("Could not sign request to {}", request.getURI(), e);
+			throw new IOException("Could not sign request to " + request.getURI(), e);
+		}
+		long signNanos = System.nanoTime() - start;
+
+		if (listener != null) {
+			listener.signed(request, digestNanos, signNanos, sigParams != null);
+		}
+
+		if (sigParams == null) {
+			log.warn("Could not sign request to {}", request.getURI());
+			throw new IOException("Could not sign request to " + request.getURI());
+		}
+
+		return execution.execute(request, body);
+	}
+
+	/**
+	 * @return the profile every request is signed with
+	 */
+	public SigningProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @return the digest for the Content-Digest field, or null if it's not added
+	 */
+	public ContentDigest getContentDigest() {
+		return contentDigest;
+	}
+
+	/**
+	 * @param contentDigest the digest for the Content-Digest field, or null to not add it
+	 */
+	public SigningClientHttpRequestInterceptor setContentDigest(ContentDigest contentDigest) {
+		this.contentDigest = contentDigest;
+		return this;
+	}
+
+	/**
+	 * @return the listener told how long each request took to sign, or null
+	 */
+	public SigningListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * @param listener the listener told how long each request took to sign, or null for none
+	 */
+	public SigningClientHttpRequestInterceptor setListener(SigningListener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	/**
+	 * Timing hook, called on the request thread after each request is signed and
+	 * before it's sent. Implementations should be quick and thread safe.
+	 */
+	@FunctionalInterface
+	public interface SigningListener {
+
+		/**
+		 * @param request the signed request
+		 * @param digestNanos time spent on the Content-Digest field, zero if it isn't added
+		 * @param signNanos time spent building the signature base and signing it
+		 * @param success false if the request couldn't be signed and won't be sent
+		 */
+		void signed(HttpRequest request, long digestNanos, long signNanos, boolean success);
+	}
+
+}
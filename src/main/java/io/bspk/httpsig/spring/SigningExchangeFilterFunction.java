@@ -0,0 +1,150 @@
+package io.bspk.httpsig.spring;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import io.bspk.httpsig.MessageVerifier;
+import io.bspk.httpsig.SignatureParameters;
+import io.bspk.httpsig.SigningProfile;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Signs every request from a reactive Spring WebClient with a {@link SigningProfile},
+ * and optionally verifies the signatures on the responses.
+ *
+ * The signing and verifying both run on the given scheduler, which should be
+ * bounded, so that the cryptography never runs on the event loop threads.
+ * Each step is part of the reactive chain, so nothing happens until the
+ * exchange is subscribed to and the response body is left for the caller to
+ * consume at its own pace. A request that can't be signed ends the exchange
+ * with an IllegalStateException. So does a response that doesn't pass
+ * {@link MessageVerifier#isVerified(Map)} when a verifier is set, such as one
+ * with no signatures or with a failed required label. A response that fails
+ * verification has its body released.
+ *
+ * <pre>
+ * WebClient client = WebClient.builder()
+ *   .filter(new SigningExchangeFilterFunction(profile).setVerifier(messageVerifier))
+ *   .build();
+ * </pre>
+ *
+ * Configure a filter up front; after that it can be shared between threads.
+ *
+ * @author jricher
+ *
+ */
+public class SigningExchangeFilterFunction implements ExchangeFilterFunction {
+
+	private static final Logger log = LoggerFactory.getLogger(SigningExchangeFilterFunction.class);
+
+	private final SigningProfile profile;
+	private final Scheduler scheduler;
+
+	private MessageVerifier verifier;
+
+	/**
+	 * Sign and verify on Reactor's shared bounded elastic scheduler.
+	 */
+	public SigningExchangeFilterFunction(SigningProfile profile) {
+		this(profile, Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Sign and verify on the given scheduler.
+	 */
+	public SigningExchangeFilterFunction(SigningProfile profile, Scheduler scheduler) {
+		this.profile = profile;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+		return Mono.fromCallable(() -> sign(request))
+			.subscribeOn(scheduler)
+			.flatMap(signed -> {
+				Mono<ClientResponse> response = next.exchange(signed);
+				if (verifier == null) {
+					return response;
+				} else {
+					return response.flatMap(r -> checkResponse(r, signed));
+				}
+			});
+	}
+
+	/**
+	 * Sign the request on the calling thread.
+	 *
+	 * @return a copy of the request with the signature added
+	 * @throws IllegalStateException if the request couldn't be signed
+	 */
+	public ClientRequest sign(ClientRequest request) {
+		HttpHeaders signatureHeaders = new HttpHeaders();
+		SignatureParameters sigParams = profile.sign(new ClientRequestProvider(request), new RestTemplateMessageWrapper(signatureHeaders));
+		if (sigParams == null) {
+			throw new IllegalStateException("Could not sign request to " + request.url());
+		}
+
+		return ClientRequest.from(request)
+			.headers(headers -> headers.addAll(signatureHeaders))
+			.build();
+	}
+
+	/**
+	 * Verify all signatures on the response on the scheduler, without reading its body.
+	 *
+	 * @param request the request that got this response, for components marked with "req"
+	 * @return the result for each label
+	 */
+	public Mono<Map<String, Boolean>> verify(ClientResponse response, ClientRequest request) {
+		if (verifier == null) {
+			return Mono.error(new IllegalStateException("No verifier is set"));
+		}
+		return Mono.fromCallable(() -> verifier.verify(new ClientResponseProvider(response, request)))
+			.subscribeOn(scheduler);
+	}
+
+	private Mono<ClientResponse> checkResponse(ClientResponse response, ClientRequest request) {
+		return verify(response, request)
+			.flatMap(results -> {
+				if (MessageVerifier.isVerified(results)) {
+					return Mono.just(response);
+				} else {
+					log.warn("Response signature from {} could not be verified: {}", request.url(), results);
+					return response.releaseBody()
+						.then(Mono.error(new IllegalStateException("Response signature could not be verified: " + results)));
+				}
+			});
+	}
+
+	/**
+	 * @return the profile every request is signed with
+	 */
+	public SigningProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @return the verifier responses have to pass, or null if they aren't verified
+	 */
+	public MessageVerifier getVerifier() {
+		return verifier;
+	}
+
+	/**
+	 * @param verifier the verifier responses have to pass, or null to not verify them
+	 */
+	public SigningExchangeFilterFunction setVerifier(MessageVerifier verifier) {
+		this.verifier = verifier;
+		return this;
+	}
+
+}
@@ -0,0 +1,68 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchVerifierTest {
+
+	private TestComponentProviders ctx;
+	private TestKeys keys;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.ctx  = TestComponentProviders.getProviders();
+	}
+
+	@Test
+	public void testVerifyAll() {
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-key-ecc-p256")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("content-type");
+
+		byte[] base = new SignatureBaseBuilder(params, ctx.TEST_REQUEST).createSignatureBase();
+
+		HttpSign signer = new HttpSign(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+		HttpVerify verifier = new HttpVerify(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+		HttpVerify wrongKey = new HttpVerify(HttpSigAlgorithm.RSAPSS, keys.TEST_KEY_RSA_PSS);
+
+		byte[] signed = signer.sign(base);
+
+		List<BatchVerifier.Entry> entries = new ArrayList<>();
+		List<Boolean> expected = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			if (i % 5 == 0) {
+				entries.add(BatchVerifier.Entry.of(wrongKey, base, signed));
+				expected.add(false);
+			} else if (i % 2 == 0) {
+				entries.add(BatchVerifier.Entry.of(verifier, params, ctx.TEST_REQUEST, signed));
+				expected.add(true);
+			} else {
+				entries.add(BatchVerifier.Entry.of(verifier, base, signed));
+				expected.add(true);
+			}
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			assertEquals(expected, new BatchVerifier(executor, 4).verifyAll(entries));
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(expected, new BatchVerifier().verifyAll(entries));
+		assertEquals(List.of(), new BatchVerifier().verifyAll(List.of()));
+	}
+
+}
@@ -0,0 +1,90 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+
+class ComponentProviderTest {
+
+	@Test
+	public void testCombineFieldValues() {
+		assertNull(ComponentProvider.combineFieldValues(null));
+		assertNull(ComponentProvider.combineFieldValues(List.of()));
+		assertNull(ComponentProvider.combineFieldValues(List.of("")));
+		assertNull(ComponentProvider.combineFieldValues(List.of("  \t ")));
+		assertEquals(", ", ComponentProvider.combineFieldValues(List.of("", " ")));
+
+		String clean = "application/json";
+		assertSame(clean, ComponentProvider.combineFieldValues(List.of(clean)));
+
+		assertEquals("a, b, c", ComponentProvider.combineFieldValues(List.of(" a", "b ", "\tc\t")));
+		assertEquals("max-age=60, must-revalidate, private",
+			ComponentProvider.combineFieldValues(List.of("max-age=60,  \r\n    must-revalidate", "  private")));
+		assertEquals("a b  c", ComponentProvider.combineFieldValues(List.of("a\r\r\n\r\nb  c")));
+		assertEquals("a \nb", ComponentProvider.combineFieldValues(List.of("a \nb\r\n")));
+
+		// the same as the regular expression it replaced, on whatever we can throw at it
+		Random random = new Random(42);
+		char[] alphabet = {'a', 'b', ' ', '\t', '\r', '\n', '\f', '\u000B', '\u00A0', '\u2003', ','};
+		for (int n = 0; n < 10000; n++) {
+			List<String> fields = new ArrayList<>();
+			int count = 1 + random.nextInt(3);
+			for (int f = 0; f < count; f++) {
+				StringBuilder value = new StringBuilder();
+				int len = random.nextInt(12);
+				for (int i = 0; i < len; i++) {
+					value.append(alphabet[random.nextInt(alphabet.length)]);
+				}
+				fields.add(value.toString());
+			}
+			assertEquals(regexCombineFieldValues(fields), ComponentProvider.combineFieldValues(fields), fields.toString());
+		}
+	}
+
+	@Test
+	public void testQueryParams() {
+		ComponentProvider ctx = new UriRequestComponentProviderAdapter(URI.create("https://example.com/parameters?var=this%20is%20a%20big%0Amultiline%20value&bar=with+plus+whitespace&fa%C3%A7ade%22%3A%20=something&dup=1&dup=2&empty")) {
+			@Override
+			public String getMethod() {
+				return "GET";
+			}
+
+			@Override
+			public String getField(String name) {
+				return null;
+			}
+		};
+
+		// RFC 9421 section 2.2.8
+		assertEquals("this%20is%20a%20big%0Amultiline%20value", ctx.getQueryParams("var"));
+		assertEquals("with%20plus%20whitespace", ctx.getQueryParams("bar"));
+		assertEquals("something", ctx.getQueryParams("fa\u00E7ade\": "));
+		assertEquals("", ctx.getQueryParams("empty"));
+		assertNull(ctx.getQueryParams("missing"));
+		assertThrows(IllegalArgumentException.class, () -> ctx.getQueryParams("dup"));
+
+		QueryParameterIndex index = QueryParameterIndex.parse("?dup=1&x=y&dup=2");
+		assertEquals(List.of("1", "2"), index.getValues("dup"));
+		assertEquals(List.of(), index.getValues("missing"));
+		assertNull(QueryParameterIndex.parse(null).getValue("x"));
+	}
+
+	private static String regexCombineFieldValues(List<String> fields) {
+		return Strings.emptyToNull(fields.stream()
+			.map(String::strip)
+			.map(v -> v.replaceAll("[\\s\\t]*\\r\\n[\\s\\t]*", " "))
+			.collect(Collectors.joining(", ")));
+	}
+
+}
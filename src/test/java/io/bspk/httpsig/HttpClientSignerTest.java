@@ -0,0 +1,153 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.net.ssl.SSLSession;
+
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.bspk.httpsig.jdk.HttpClientSigner;
+import io.bspk.httpsig.jdk.HttpClientVerifier;
+import io.bspk.httpsig.jdk.HttpRequestProvider;
+import io.bspk.httpsig.jdk.HttpResponseProvider;
+
+class HttpClientSignerTest {
+
+	private TestKeys keys;
+	private KeyResolver keyResolver;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.keyResolver = keyid -> new HttpVerify(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519);
+	}
+
+	@Test
+	public void testSignRequest() throws Exception {
+		SignatureParameters template = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@target-uri")
+			.addComponentIdentifier(StringItem.valueOf("@query-param")
+				.withParams(Parameters.valueOf(Map.of("name", "Pet"))))
+			.addComponentIdentifier("content-type");
+
+		SigningProfile profile = new SigningProfile(new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519),
+			template, "sig1", null, Clock.systemUTC());
+
+		HttpRequest request = HttpRequest.newBuilder(URI.create("https://example.com/foo?param=Value&Pet=dog"))
+			.POST(HttpRequest.BodyPublishers.ofString("{\"hello\": \"world\"}"))
+			.header("Content-Type", "application/json")
+			.timeout(Duration.ofSeconds(5))
+			.build();
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			HttpRequest signed = new HttpClientSigner(profile, executor).signAsync(request).get();
+
+			assertEquals(request.uri(), signed.uri());
+			assertEquals(request.method(), signed.method());
+			assertEquals(request.timeout(), signed.timeout());
+			assertEquals(List.of("application/json"), signed.headers().allValues("content-type"));
+
+			assertEquals(Map.of("sig1", true), new MessageVerifier(keyResolver).verify(new HttpRequestProvider(signed)));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testVerifyResponse() throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("https://example.com/foo"))
+			.GET()
+			.build();
+
+		SignatureParameters sigParams = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@status")
+			.addComponentIdentifier("content-type")
+			.addComponentIdentifier(StringItem.valueOf("@method")
+				.withParams(Parameters.valueOf(Map.of("req", true))));
+
+		Map<String, List<String>> headers = new HashMap<>();
+		headers.put("content-type", List.of("text/plain"));
+
+		byte[] signature = new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519)
+			.sign(new SignatureBaseBuilder(sigParams, new HttpResponseProvider(response(request, headers))));
+		headers.put("signature-input", List.of("res=" + sigParams.serializeComponentValue()));
+		headers.put("signature", List.of("res=:" + Base64.getEncoder().encodeToString(signature) + ":"));
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Map<String, Boolean> results = new HttpClientVerifier(new MessageVerifier(keyResolver), executor)
+				.verify(response(request, headers))
+				.get();
+			assertEquals(Map.of("res", true), results);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private HttpResponse<String> response(HttpRequest request, Map<String, List<String>> headers) {
+		return new HttpResponse<>() {
+			@Override
+			public int statusCode() {
+				return 200;
+			}
+
+			@Override
+			public HttpRequest request() {
+				return request;
+			}
+
+			@Override
+			public Optional<HttpResponse<String>> previousResponse() {
+				return Optional.empty();
+			}
+
+			@Override
+			public HttpHeaders headers() {
+				return HttpHeaders.of(headers, (name, value) -> true);
+			}
+
+			@Override
+			public String body() {
+				return "hello";
+			}
+
+			@Override
+			public Optional<SSLSession> sslSession() {
+				return Optional.empty();
+			}
+
+			@Override
+			public URI uri() {
+				return request.uri();
+			}
+
+			@Override
+			public HttpClient.Version version() {
+				return HttpClient.Version.HTTP_1_1;
+			}
+		};
+	}
+
+}
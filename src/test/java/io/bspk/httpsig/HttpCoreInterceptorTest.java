@@ -0,0 +1,200 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Clock;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.impl.bootstrap.HttpServer;
+import org.apache.hc.core5.http.impl.bootstrap.ServerBootstrap;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.bspk.httpsig.httpcore.HttpCoreMessageWrapper;
+import io.bspk.httpsig.httpcore.HttpCoreRequestProvider;
+import io.bspk.httpsig.httpcore.HttpCoreResponseProvider;
+import io.bspk.httpsig.httpcore.SigningAsyncExecHandler;
+import io.bspk.httpsig.httpcore.SigningRequestInterceptor;
+import io.bspk.httpsig.httpcore.VerifyingResponseInterceptor;
+
+class HttpCoreInterceptorTest {
+
+	private TestKeys keys;
+	private KeyResolver keyResolver;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.keyResolver = keyid -> new HttpVerify(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519);
+	}
+
+	@Test
+	public void testSignAndVerify() throws Exception {
+		URI uri = URI.create("https://example.com:8443/foo?param=Value&Pet=dog");
+		BasicHttpRequest request = new BasicHttpRequest("POST", uri);
+		request.addHeader("Content-Type", "application/json");
+		request.addHeader("X-Multi", "a");
+		request.addHeader("X-Multi", " b ");
+
+		// the same as the URI based components
+		HttpCoreRequestProvider provider = new HttpCoreRequestProvider(request);
+		ComponentProvider expected = new UriRequestComponentProviderAdapter(uri) {
+			@Override
+			public String getMethod() {
+				return null;
+			}
+
+			@Override
+			public String getField(String name) {
+				return null;
+			}
+		};
+		assertEquals(expected.getScheme(), provider.getScheme());
+		assertEquals(expected.getAuthority(), provider.getAuthority());
+		assertEquals(expected.getTargetUri(), provider.getTargetUri());
+		assertEquals(expected.getRequestTarget(), provider.getRequestTarget());
+		assertEquals(expected.getQueryParams("Pet"), provider.getQueryParams("Pet"));
+		assertEquals("a, b", provider.getField("x-multi"));
+		assertNull(provider.getField("x-missing"));
+
+		SignatureParameters template = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("@request-target")
+			.addComponentIdentifier("x-multi");
+		SigningProfile profile = new SigningProfile(new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519),
+			template, "sig1", null, Clock.systemUTC());
+
+		HttpCoreContext context = HttpCoreContext.create();
+		new SigningRequestInterceptor(profile).process(request, null, context);
+
+		assertEquals(Map.of("sig1", true), new MessageVerifier(keyResolver).verify(new HttpCoreRequestProvider(request)));
+
+		// sign a response that covers the request's method
+		BasicHttpResponse response = new BasicHttpResponse(200);
+		response.addHeader("Content-Type", "text/plain");
+		SignatureParameters responseParams = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@status")
+			.addComponentIdentifier("content-type")
+			.addComponentIdentifier(StringItem.valueOf("@method")
+				.withParams(Parameters.valueOf(Map.of("req", true))));
+		byte[] signature = new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519)
+			.sign(new SignatureBaseBuilder(responseParams, new HttpCoreResponseProvider(response, request)));
+		new HttpCoreMessageWrapper(response).addSignature("res", responseParams, signature);
+
+		context.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
+		VerifyingResponseInterceptor interceptor = new VerifyingResponseInterceptor(new MessageVerifier(keyResolver))
+			.setRequired(true);
+		interceptor.process(response, null, context);
+		assertEquals(Map.of("res", true), context.getAttribute(VerifyingResponseInterceptor.RESULTS_ATTRIBUTE));
+
+		// a response for another request doesn't verify
+		context.setAttribute(HttpCoreContext.HTTP_REQUEST, new BasicHttpRequest("GET", uri));
+		assertThrows(HttpException.class, () -> interceptor.process(response, null, context));
+		assertEquals(Map.of("res", false), context.getAttribute(VerifyingResponseInterceptor.RESULTS_ATTRIBUTE));
+
+		// a passing signature next to it doesn't make up for the failed required label
+		SignatureParameters plainParams = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@status");
+		new HttpCoreMessageWrapper(response).addSignature("plain", plainParams, new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519)
+			.sign(new SignatureBaseBuilder(plainParams, new HttpCoreResponseProvider(response))));
+		VerifyingResponseInterceptor requiredLabel = new VerifyingResponseInterceptor(new MessageVerifier(keyResolver)
+			.setRequiredLabels(Set.of("res")))
+			.setRequired(true);
+		assertThrows(HttpException.class, () -> requiredLabel.process(response, null, context));
+		assertEquals(Map.of("res", false, "plain", true), context.getAttribute(VerifyingResponseInterceptor.RESULTS_ATTRIBUTE));
+	}
+
+	@Test
+	public void testAsyncExecHandler() throws Exception {
+		SignatureParameters template = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@path");
+		SigningProfile profile = new SigningProfile(new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519),
+			template, "sig1", null, Clock.systemUTC());
+
+		// the server checks the request and signs its response, except on the unsigned path
+		AtomicReference<Map<String, Boolean>> requestResults = new AtomicReference<>();
+		SignatureParameters responseParams = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@status");
+		HttpServer server = ServerBootstrap.bootstrap()
+			.setListenerPort(0)
+			.register("*", (request, response, context) -> {
+				requestResults.set(new MessageVerifier(keyResolver).verify(new HttpCoreRequestProvider(request)));
+				response.setCode(200);
+				response.setEntity(new StringEntity("hello", ContentType.TEXT_PLAIN));
+				if (!request.getPath().equals("/unsigned")) {
+					byte[] signature = new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519)
+						.sign(new SignatureBaseBuilder(responseParams, new HttpCoreResponseProvider(response, request)));
+					new HttpCoreMessageWrapper(response).addSignature("res", responseParams, signature);
+				}
+			})
+			.create();
+		server.start();
+
+		// count how much work is handed to the executor
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		AtomicInteger tasks = new AtomicInteger();
+		SigningAsyncExecHandler handler = new SigningAsyncExecHandler(profile, task -> {
+			tasks.incrementAndGet();
+			pool.execute(task);
+		}).setVerifier(new MessageVerifier(keyResolver)).setRequired(true);
+
+		CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+			.addExecInterceptorAfter(ChainElement.PROTOCOL.name(), "httpsig", handler)
+			.build();
+		client.start();
+
+		try {
+			String base = "http://localhost:" + server.getLocalPort();
+
+			HttpClientContext context = HttpClientContext.create();
+			SimpleHttpResponse response = client.execute(SimpleRequestBuilder.get(base + "/foo").build(), context, null).get();
+			assertEquals(200, response.getCode());
+			assertEquals("hello", response.getBodyText());
+			assertEquals(Map.of("sig1", true), requestResults.get());
+			assertEquals(Map.of("res", true), context.getAttribute(VerifyingResponseInterceptor.RESULTS_ATTRIBUTE));
+			// signing and verifying
+			assertEquals(2, tasks.get());
+
+			// an unsigned response fails the exchange
+			ExecutionException e = assertThrows(ExecutionException.class,
+				() -> client.execute(SimpleRequestBuilder.get(base + "/unsigned").build(), null).get());
+			assertTrue(e.getCause() instanceof HttpException);
+		} finally {
+			client.close();
+			server.close();
+			pool.shutdown();
+		}
+	}
+
+}
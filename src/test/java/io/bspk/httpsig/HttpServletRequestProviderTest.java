@@ -0,0 +1,86 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.jupiter.api.Test;
+
+import io.bspk.httpsig.servlet.HttpServletRequestProvider;
+
+class HttpServletRequestProviderTest {
+
+	@Test
+	public void testSameAsUri() {
+		check("https", "example.com", 443, "/foo", null, 0);
+		check("http", "example.com", 8080, "/foo/bar", "param=Value&Pet=dog", 0);
+		check("https", "www.example.com", 443, "/a%20path", "q=%C3%A7a&x", 1);
+	}
+
+	/**
+	 * Compare every URI component with the plain URI adapter, and count how often the URI was parsed.
+	 */
+	private void check(String scheme, String serverName, int port, String requestUri, String queryString, int expectedParses) {
+		String url = scheme + "://" + serverName
+			+ ((scheme.equals("https") && port == 443) ? "" : ":" + port)
+			+ requestUri;
+
+		HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+			new Class<?>[] { HttpServletRequest.class },
+			(proxy, method, args) -> {
+				switch (method.getName()) {
+					case "getScheme":
+						return scheme;
+					case "getServerName":
+						return serverName;
+					case "getServerPort":
+						return port;
+					case "getRequestURI":
+						return requestUri;
+					case "getRequestURL":
+						return new StringBuffer(url);
+					case "getQueryString":
+						return queryString;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+				}
+			});
+
+		AtomicInteger parses = new AtomicInteger();
+		ComponentProvider servlet = new HttpServletRequestProvider(request) {
+			@Override
+			protected URI createUri() {
+				parses.incrementAndGet();
+				return super.createUri();
+			}
+		};
+
+		ComponentProvider expected = new UriRequestComponentProviderAdapter(URI.create(url + (queryString != null ? "?" + queryString : ""))) {
+			@Override
+			public String getMethod() {
+				return null;
+			}
+
+			@Override
+			public String getField(String name) {
+				return null;
+			}
+		};
+
+		assertEquals(expected.getScheme(), servlet.getScheme());
+		assertEquals(expected.getAuthority(), servlet.getAuthority());
+		assertEquals(expected.getTargetUri(), servlet.getTargetUri());
+		assertEquals(expected.getRequestTarget(), servlet.getRequestTarget());
+		assertEquals(expected.getPath(), servlet.getPath());
+		if (queryString != null) {
+			assertEquals(expected.getQuery(), servlet.getQuery());
+			assertEquals(expected.getQueryParams("Pet"), servlet.getQueryParams("Pet"));
+		}
+		assertEquals(expectedParses, parses.get());
+	}
+
+}
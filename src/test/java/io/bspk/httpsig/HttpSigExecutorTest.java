@@ -0,0 +1,91 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HttpSigExecutorTest {
+
+	private TestComponentProviders ctx;
+	private TestKeys keys;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.ctx  = TestComponentProviders.getProviders();
+	}
+
+	@Test
+	public void testSignAndVerify() {
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-key-rsa-pss")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority");
+
+		HttpSign signer = new HttpSign(HttpSigAlgorithm.RSAPSS, keys.TEST_KEY_RSA_PSS);
+		HttpVerify verifier = new HttpVerify(HttpSigAlgorithm.RSAPSS, keys.TEST_KEY_RSA_PSS);
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			HttpSigExecutor async = new HttpSigExecutor(executor, 4);
+
+			Boolean verified = async.sign(signer, params, ctx.TEST_REQUEST)
+				.thenCompose(signed -> async.verify(verifier, params, ctx.TEST_REQUEST, signed))
+				.join();
+
+			assertTrue(verified);
+
+			byte[] base = async.createSignatureBase(params, ctx.TEST_REQUEST).join();
+			assertEquals(new String(new SignatureBaseBuilder(params, ctx.TEST_REQUEST).createSignatureBase()), new String(base));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testSaturated() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			HttpSigExecutor async = new HttpSigExecutor(executor, 1);
+
+			CountDownLatch started = new CountDownLatch(1);
+			CountDownLatch release = new CountDownLatch(1);
+
+			CompletableFuture<byte[]> blocked = async.sign(new HttpSign(HttpSigAlgorithm.HMAC, keys.TEST_SHARED_SECRET), out -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				out.write(1);
+			});
+			started.await();
+
+			assertEquals(1, async.getInFlight());
+
+			CompletableFuture<byte[]> rejected = async.sign(new HttpSign(HttpSigAlgorithm.HMAC, keys.TEST_SHARED_SECRET), out -> out.write(1));
+			CompletionException e = assertThrows(CompletionException.class, rejected::join);
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+
+			release.countDown();
+			blocked.join();
+			assertEquals(0, async.getInFlight());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -3,9 +3,14 @@ package io.bspk.httpsig;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
 import java.util.Map;
 
 import org.greenbytes.http.sfv.InnerList;
@@ -15,6 +20,12 @@ import org.greenbytes.http.sfv.StringItem;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+
 class HttpSignVerifyTest {
 
 	private TestComponentProviders ctx;
@@ -260,12 +271,78 @@ class HttpSignVerifyTest {
 		
 		assertArrayEquals(expected, base);
 		
-		HttpSign signer = new HttpSign(HttpSigAlgorithm.HMAC, TestKeys.getKeys().TEST_SHARED_SECRET);
+		HttpSign signer = new HttpSign(HttpSigAlgorithm.ED25519, TestKeys.getKeys().TEST_KEY_ED25519);
 		byte[] signed = signer.sign(base);
 		
-		HttpVerify verifier = new HttpVerify(HttpSigAlgorithm.HMAC, TestKeys.getKeys().TEST_SHARED_SECRET);
+		// Ed25519 is deterministic, so this is the signature from RFC 9421 B.2.6
+		assertEquals("wqcAqbmYJ2ji2glfAMaRy4gruYYnx2nEFN2HN6jrnDnQCK1u02Gb04v9EDgwUPiu4A0w6vuQv5lIp5WPpBKRCw==",
+			Base64.getEncoder().encodeToString(signed));
+		
+		HttpVerify verifier = new HttpVerify(HttpSigAlgorithm.ED25519, TestKeys.getKeys().TEST_KEY_ED25519.toPublicJWK());
 		boolean verified = verifier.verify(base, signed);
 		
 		assertTrue(verified);
 	}
+
+	@Test
+	public void testMismatchedKey() {
+		byte[] base = "\"@signature-params\": ()".getBytes();
+
+		HttpSign signer = new HttpSign(HttpSigAlgorithm.RSAPSS, TestKeys.getKeys().TEST_SHARED_SECRET);
+		assertNull(signer.sign(base));
+
+		HttpVerify verifier = new HttpVerify(HttpSigAlgorithm.ECDSA, TestKeys.getKeys().TEST_KEY_RSA_PSS);
+		assertFalse(verifier.verify(base, new byte[64]));
+	}
+
+	@Test
+	public void testStreaming() throws Exception {
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-shared-secret")
+			.addComponentIdentifier("date")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("content-type");
+
+		SignatureBaseBuilder signatureBaseBuilder = new SignatureBaseBuilder(params, ctx.TEST_REQUEST);
+
+		byte[] base = signatureBaseBuilder.createSignatureBase();
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		signatureBaseBuilder.writeSignatureBase(buffer);
+		assertArrayEquals(base, buffer.toByteArray());
+
+		HttpSign hmacSigner = new HttpSign(HttpSigAlgorithm.HMAC, TestKeys.getKeys().TEST_SHARED_SECRET);
+		assertArrayEquals(hmacSigner.sign(base), hmacSigner.sign(signatureBaseBuilder));
+
+		HttpSign signer = new HttpSign(HttpSigAlgorithm.RSAPSS, TestKeys.getKeys().TEST_KEY_RSA_PSS);
+		byte[] signed = signer.sign(signatureBaseBuilder);
+
+		HttpVerify verifier = new HttpVerify(HttpSigAlgorithm.RSAPSS, TestKeys.getKeys().TEST_KEY_RSA_PSS);
+		assertTrue(verifier.verify(base, signed));
+		assertTrue(verifier.verify(signatureBaseBuilder, signed));
+	}
+
+	@Test
+	public void testJose() {
+		byte[] base = new SignatureBaseBuilder(new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority"), ctx.TEST_REQUEST).createSignatureBase();
+
+		JWK rsa = new RSAKey.Builder(TestKeys.getKeys().TEST_KEY_RSA_PSS.toRSAKey()).algorithm(JWSAlgorithm.PS512).build();
+		JWK ec = new ECKey.Builder(TestKeys.getKeys().TEST_KEY_ECC_P256.toECKey()).algorithm(JWSAlgorithm.ES256).build();
+		JWK hmac = new OctetSequenceKey.Builder(TestKeys.getKeys().TEST_SHARED_SECRET.toOctetSequenceKey().getKeyValue()).algorithm(JWSAlgorithm.HS256).build();
+
+		for (JWK key : List.of(rsa, ec, hmac)) {
+			HttpSign signer = new HttpSign(HttpSigAlgorithm.JOSE, key);
+			HttpVerify verifier = new HttpVerify(HttpSigAlgorithm.JOSE, key);
+
+			// reuse the same signer and verifier across messages
+			for (int i = 0; i < 3; i++) {
+				byte[] signed = signer.sign(base);
+				assertTrue(verifier.verify(base, signed));
+			}
+		}
+	}
 }
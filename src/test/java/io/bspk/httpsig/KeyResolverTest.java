@@ -0,0 +1,116 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.nimbusds.jose.jwk.JWKSet;
+
+class KeyResolverTest {
+
+	private TestComponentProviders ctx;
+	private TestKeys keys;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.ctx  = TestComponentProviders.getProviders();
+	}
+
+	@Test
+	public void testFileResolver(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("keys.json");
+		Files.writeString(file, new JWKSet(List.of(keys.TEST_KEY_ECC_P256.toPublicJWK(), keys.TEST_KEY_ED25519.toPublicJWK())).toString());
+
+		KeyResolver resolver = new CachingKeyResolver(new JWKSetFileKeyResolver(file), 100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority");
+
+		byte[] signed = new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519)
+			.sign(new SignatureBaseBuilder(params, ctx.TEST_REQUEST));
+
+		assertTrue(resolver.verify(params, ctx.TEST_REQUEST, signed));
+		assertEquals(HttpSigAlgorithm.ECDSA, resolver.resolve("test-key-ecc-p256").getAlg());
+
+		// wrong algorithm for the key
+		assertFalse(resolver.verify(params.setAlg(HttpSigAlgorithm.RSAPSS), ctx.TEST_REQUEST, signed));
+
+		// unknown key
+		assertFalse(resolver.verify(params.setAlg(null).setKeyid("test-key-rsa"), ctx.TEST_REQUEST, signed));
+	}
+
+	@Test
+	public void testCaching() throws Exception {
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+
+		KeyResolver slow = keyid -> {
+			loads.incrementAndGet();
+			try {
+				loading.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (keyid.equals("test-key-ecc-p256")) {
+				return new HttpVerify(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+			} else {
+				return null;
+			}
+		};
+
+		CachingKeyResolver resolver = new CachingKeyResolver(slow, 100, Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+		// a burst of requests for a cold key only loads it once
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<HttpVerify>> results = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				results.add(executor.submit(() -> resolver.resolve("test-key-ecc-p256")));
+			}
+			Thread.sleep(100);
+			loading.countDown();
+
+			HttpVerify first = results.get(0).get();
+			assertNotNull(first);
+			for (Future<HttpVerify> result : results) {
+				assertSame(first, result.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, loads.get());
+
+		// unknown keys are remembered too
+		assertNull(resolver.resolve("unknown"));
+		assertNull(resolver.resolve("unknown"));
+		assertEquals(2, loads.get());
+
+		resolver.invalidate("unknown");
+		assertNull(resolver.resolve("unknown"));
+		assertEquals(3, loads.get());
+	}
+
+}
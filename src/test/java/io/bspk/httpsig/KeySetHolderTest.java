@@ -0,0 +1,101 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.util.JSONObjectUtils;
+
+class KeySetHolderTest {
+
+	@Test
+	public void testReload(@TempDir Path dir) throws Exception {
+		TestKeys keys = TestKeys.getKeys();
+
+		Path file = dir.resolve("keys.json");
+		write(file, new JWKSet(List.of(keys.TEST_KEY_ECC_P256, keys.TEST_KEY_ED25519.toPublicJWK())));
+
+		KeySetHolder holder = new KeySetHolder(file, 2);
+
+		HttpSign signer = holder.getSigner("test-key-ecc-p256");
+		HttpVerify verifier = holder.resolve("test-key-ecc-p256");
+		assertNotNull(signer);
+		assertTrue(verifier.verify("base".getBytes(), signer.sign("base".getBytes())));
+
+		// public only
+		assertNull(holder.getSigner("test-key-ed25519"));
+		assertNotNull(holder.resolve("test-key-ed25519"));
+
+		// rotate: drop one key, keep one, add one
+		write(file, new JWKSet(List.of(keys.TEST_KEY_ECC_P256, keys.TEST_KEY_RSA_PSS)));
+		holder.reload();
+
+		assertSame(verifier, holder.resolve("test-key-ecc-p256"));
+		assertSame(signer, holder.getSigner("test-key-ecc-p256"));
+		assertNull(holder.resolve("test-key-ed25519"));
+		assertNotNull(holder.getSigner("test-key-rsa-pss"));
+
+		// a broken file leaves the current set in place
+		HttpVerify rsaVerifier = holder.resolve("test-key-rsa-pss");
+		Files.writeString(file, "{\"keys\": [");
+		assertThrows(ParseException.class, holder::reload);
+		assertSame(rsaVerifier, holder.resolve("test-key-rsa-pss"));
+
+		// changed key material under the same key ID gets a new verifier
+		write(file, new JWKSet(List.of(keys.TEST_KEY_RSA_PSS.toPublicJWK())));
+		holder.reload();
+		assertNotSame(rsaVerifier, holder.resolve("test-key-rsa-pss"));
+		assertNull(holder.getSigner("test-key-rsa-pss"));
+	}
+
+	@Test
+	public void testWatch(@TempDir Path dir) throws Exception {
+		TestKeys keys = TestKeys.getKeys();
+
+		Path file = dir.resolve("keys.json");
+		write(file, new JWKSet(keys.TEST_KEY_ECC_P256));
+
+		KeySetHolder holder = new KeySetHolder(file, 2);
+		holder.watch();
+
+		Thread watcher = Thread.getAllStackTraces().keySet().stream()
+			.filter(t -> t.getName().equals("httpsig-keyset-keys.json"))
+			.findFirst()
+			.orElseThrow();
+		assertTrue(watcher.isAlive());
+
+		// rewrite the file and wait for the watcher to publish the new set
+		write(file, new JWKSet(List.of(keys.TEST_KEY_ECC_P256, keys.TEST_KEY_ED25519)));
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (holder.resolve("test-key-ed25519") == null && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertNotNull(holder.resolve("test-key-ed25519"));
+		assertNotNull(holder.getSigner("test-key-ed25519"));
+
+		// closing stops the watcher, and keeps the current set
+		holder.close();
+		watcher.join(5_000);
+		assertFalse(watcher.isAlive());
+		assertNotNull(holder.resolve("test-key-ed25519"));
+	}
+
+	private static void write(Path file, JWKSet keySet) throws Exception {
+		// include the private keys
+		Files.writeString(file, JSONObjectUtils.toJSONString(keySet.toJSONObject(false)));
+	}
+
+}
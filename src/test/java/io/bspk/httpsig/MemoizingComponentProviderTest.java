@@ -0,0 +1,69 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+import org.junit.jupiter.api.Test;
+
+class MemoizingComponentProviderTest {
+
+	@Test
+	public void testMemoize() {
+		AtomicInteger fieldLookups = new AtomicInteger();
+		AtomicInteger methodLookups = new AtomicInteger();
+
+		ComponentProvider counting = new UriRequestComponentProviderAdapter(URI.create("https://example.com/foo?Pet=dog")) {
+			@Override
+			public String getMethod() {
+				methodLookups.incrementAndGet();
+				return "POST";
+			}
+
+			@Override
+			public String getField(String name) {
+				fieldLookups.incrementAndGet();
+				return name.equals("example-dict") ? "a=1,    b=2;x=1;y=2,   c=(a   b   c)" : null;
+			}
+		};
+
+		MemoizingComponentProvider memo = new MemoizingComponentProvider(counting);
+
+		StringItem key = StringItem.valueOf("example-dict").withParams(Parameters.valueOf(Map.of("key", "b")));
+
+		assertEquals("2;x=1;y=2", memo.getComponentValue(key));
+		assertEquals("2;x=1;y=2", memo.getComponentValue(key));
+		// a different object for the same identifier
+		assertEquals("2;x=1;y=2", memo.getComponentValue(StringItem.valueOf("example-dict").withParams(Parameters.valueOf(Map.of("key", "b")))));
+		assertEquals(1, fieldLookups.get());
+
+		// missing values are remembered too
+		assertNull(memo.getField("x-missing"));
+		assertNull(memo.getField("x-missing"));
+		assertEquals(2, fieldLookups.get());
+
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier(key);
+
+		byte[] base = new SignatureBaseBuilder(params, counting).createSignatureBase();
+		int methodsBefore = methodLookups.get();
+
+		assertEquals(new String(base), new String(new SignatureBaseBuilder(params, memo).createSignatureBase()));
+		assertEquals(new String(base), new String(SignatureBasePlan.compile(params).createSignatureBase(params, memo)));
+		assertEquals(methodsBefore + 1, methodLookups.get());
+
+		// the next message starts fresh
+		memo.reset(counting);
+		memo.getMethod();
+		assertEquals(methodsBefore + 2, methodLookups.get());
+	}
+
+}
@@ -0,0 +1,134 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.greenbytes.http.sfv.ByteSequenceItem;
+import org.greenbytes.http.sfv.Dictionary;
+import org.greenbytes.http.sfv.ListElement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MessageVerifierTest {
+
+	private TestComponentProviders ctx;
+	private TestKeys keys;
+
+	private KeyResolver keyResolver;
+	private String signatureInput;
+	private String signature;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.ctx  = TestComponentProviders.getProviders();
+
+		keyResolver = keyid -> {
+			switch (keyid) {
+				case "test-key-ecc-p256":
+					return new HttpVerify(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+				case "test-key-ed25519":
+					return new HttpVerify(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519);
+				default:
+					return null;
+			}
+		};
+
+		SignatureParameters ecc = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-key-ecc-p256")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("content-digest");
+
+		SignatureParameters ed = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("content-digest")
+			.addComponentIdentifier("date");
+
+		SignatureParameters unknown = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-key-unknown")
+			.addComponentIdentifier("@method");
+
+		byte[] eccSig = new HttpSign(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256).sign(new SignatureBaseBuilder(ecc, ctx.TEST_REQUEST));
+		byte[] edSig = new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519).sign(new SignatureBaseBuilder(ed, ctx.TEST_REQUEST));
+
+		// the unknown key comes first
+		Map<String, ListElement<? extends Object>> inputs = new LinkedHashMap<>();
+		inputs.put("other", unknown.toComponentValue());
+		inputs.put("ecc", ecc.toComponentValue());
+		inputs.put("ed", ed.toComponentValue());
+		signatureInput = Dictionary.valueOf(inputs).serialize();
+
+		Map<String, ListElement<? extends Object>> signatures = new LinkedHashMap<>();
+		signatures.put("other", ByteSequenceItem.valueOf(edSig));
+		signatures.put("ecc", ByteSequenceItem.valueOf(eccSig));
+		signatures.put("ed", ByteSequenceItem.valueOf(edSig));
+		signature = Dictionary.valueOf(signatures).serialize();
+	}
+
+	@Test
+	public void testVerifyAll() {
+		MessageVerifier verifier = new MessageVerifier(keyResolver);
+
+		Map<String, Boolean> results = verifier.verify(signatureInput, signature, ctx.TEST_REQUEST, null);
+		assertEquals(Map.of("ecc", true, "ed", true, "other", false), results);
+
+		// just some labels, plus one that isn't there
+		results = verifier.verify(signatureInput, signature, ctx.TEST_REQUEST, List.of("ed", "missing"));
+		assertEquals(Map.of("ed", true, "missing", false), results);
+		assertFalse(MessageVerifier.isVerified(results));
+		assertTrue(MessageVerifier.isVerified(verifier.verify(signatureInput, signature, ctx.TEST_REQUEST, List.of("ed"))));
+
+		// nothing to verify isn't a success
+		results = verifier.verify("not a dictionary (", signature, ctx.TEST_REQUEST, null);
+		assertEquals(Map.of(), results);
+		assertFalse(MessageVerifier.isVerified(results));
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			results = new MessageVerifier(keyResolver, executor)
+				.verify(signatureInput, signature, ctx.TEST_REQUEST, null);
+			assertEquals(Map.of("ecc", true, "ed", true, "other", false), results);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testRequired() {
+		MessageVerifier verifier = new MessageVerifier(keyResolver)
+			.setRequiredLabels(Set.of("other"))
+			.setStopOnRequiredFailure(true);
+
+		// stops at the failed required label, so the rest are never checked
+		Map<String, Boolean> results = verifier.verify(signatureInput, signature, ctx.TEST_REQUEST, List.of("ecc"));
+		assertEquals(Map.of("other", false), results);
+
+		results = verifier.setStopOnRequiredFailure(false)
+			.verify(signatureInput, signature, ctx.TEST_REQUEST, List.of("ecc"));
+		assertEquals(Map.of("ecc", true, "other", false), results);
+
+		results = verifier.setRequiredLabels(Set.of("nope"))
+			.setStopOnRequiredFailure(true)
+			.verify(signatureInput, signature, ctx.TEST_REQUEST, null);
+		assertEquals(Map.of("nope", false), results);
+
+		// unparseable fields fail everything asked for
+		results = verifier.verify("not a dictionary (", signature, ctx.TEST_REQUEST, List.of("ecc"));
+		assertEquals(Map.of("ecc", false, "nope", false), results);
+	}
+
+}
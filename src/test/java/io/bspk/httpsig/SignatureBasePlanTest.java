@@ -0,0 +1,152 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SignatureBasePlanTest {
+
+	private TestComponentProviders ctx;
+	private TestKeys keys;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.ctx  = TestComponentProviders.getProviders();
+	}
+
+	@Test
+	public void testSameAsBuilder() {
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-key-rsa-pss")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("@target-uri")
+			.addComponentIdentifier("@request-target")
+			.addComponentIdentifier("@scheme")
+			.addComponentIdentifier("@path")
+			.addComponentIdentifier("@query")
+			.addComponentIdentifier(StringItem.valueOf("@query-param")
+				.withParams(Parameters.valueOf(Map.of("name", "Pet"))))
+			.addComponentIdentifier("content-digest")
+			.addComponentIdentifier(StringItem.valueOf("content-length")
+				.withParams(Parameters.valueOf(Map.of("sf", true))));
+
+		SignatureBasePlan plan = SignatureBasePlan.compile(params);
+
+		assertEquals(new String(new SignatureBaseBuilder(params, ctx.TEST_REQUEST).createSignatureBase()),
+			new String(plan.createSignatureBase(params, ctx.TEST_REQUEST)));
+
+		// a different message with the same components reuses the plan
+		params.setCreated(Instant.ofEpochSecond(1618884480)).setNonce("abc");
+		HttpSign signer = new HttpSign(HttpSigAlgorithm.RSAPSS, keys.TEST_KEY_RSA_PSS);
+		HttpVerify verifier = new HttpVerify(HttpSigAlgorithm.RSAPSS, keys.TEST_KEY_RSA_PSS);
+		byte[] signed = signer.sign(plan.bind(params, ctx.TEST_REQUEST));
+		assertTrue(verifier.verify(new SignatureBaseBuilder(params, ctx.TEST_REQUEST), signed));
+	}
+
+	@Test
+	public void testResponse() {
+		ResponseComponentProviderAdapter response = new ResponseComponentProviderAdapter() {
+			@Override
+			public String getStatus() {
+				return ctx.TEST_RESPONSE.getStatus();
+			}
+
+			@Override
+			public String getField(String name) {
+				return ctx.TEST_RESPONSE.getField(name);
+			}
+		};
+		response.setRequestComponentProvider(ctx.TEST_REQUEST);
+
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.addComponentIdentifier("@status")
+			.addComponentIdentifier("content-digest")
+			.addComponentIdentifier(StringItem.valueOf("@method")
+				.withParams(Parameters.valueOf(Map.of("req", true))))
+			.addComponentIdentifier(StringItem.valueOf("content-digest")
+				.withParams(Parameters.valueOf(Map.of("req", true))));
+
+		SignatureBasePlan plan = SignatureBasePlan.compile(params);
+
+		assertEquals(new String(new SignatureBaseBuilder(params, response).createSignatureBase()),
+			new String(plan.createSignatureBase(params, response)));
+	}
+
+	@Test
+	public void testInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> SignatureBasePlan.compile(List.of(StringItem.valueOf("@unknown"))));
+		assertThrows(IllegalArgumentException.class, () -> SignatureBasePlan.compile(List.of(StringItem.valueOf("@query-param"))));
+		assertThrows(IllegalArgumentException.class, () -> SignatureBasePlan.compile(List.of(StringItem.valueOf("x-not-structured")
+			.withParams(Parameters.valueOf(Map.of("sf", true))))));
+
+		SignatureBasePlan plan = SignatureBasePlan.compile(new SignatureParameters()
+			.addComponentIdentifier("@method"));
+		SignatureParameters other = new SignatureParameters()
+			.addComponentIdentifier("@path");
+
+		assertFalse(plan.matches(other));
+		assertThrows(IllegalArgumentException.class, () -> plan.createSignatureBase(other, ctx.TEST_REQUEST));
+
+		// same components, different objects
+		assertTrue(plan.matches(new SignatureParameters().addComponentIdentifier("@method")));
+	}
+
+	@Test
+	public void testCustomStructuredField() {
+		StructuredFieldRegistry registry = new StructuredFieldRegistry(StructuredFieldRegistry.getDefault())
+			.register("X-Custom-Dict", StructuredFieldType.DICTIONARY);
+		assertEquals(StructuredFieldType.DICTIONARY, registry.get("X-Custom-Dict"));
+		assertEquals(StructuredFieldType.DICTIONARY, registry.get("x-custom-dict"));
+
+		ComponentProvider provider = new UriRequestComponentProviderAdapter(URI.create("https://example.com/")) {
+			@Override
+			public String getMethod() {
+				return "GET";
+			}
+
+			@Override
+			public String getField(String name) {
+				return name.equals("x-custom-dict") ? "a=1,   b=2;x=1;y=2,  c=(a b   c)" : ctx.TEST_REQUEST.getField(name);
+			}
+
+			@Override
+			public StructuredFieldRegistry getStructuredFieldRegistry() {
+				return registry;
+			}
+		};
+
+		StringItem custom = StringItem.valueOf("x-custom-dict").withParams(Parameters.valueOf(Map.of("sf", true)));
+		StringItem known = StringItem.valueOf("content-length").withParams(Parameters.valueOf(Map.of("sf", true)));
+
+		assertEquals("a=1, b=2;x=1;y=2, c=(a b c)", provider.getComponentValue(custom));
+		assertEquals("18", provider.getComponentValue(known));
+
+		// not registered for everyone else
+		assertThrows(IllegalArgumentException.class, () -> ctx.TEST_REQUEST.getComponentValue(custom));
+		assertThrows(IllegalArgumentException.class, () -> SignatureBasePlan.compile(List.of(custom)));
+
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.addComponentIdentifier(custom)
+			.addComponentIdentifier(known);
+
+		assertEquals(new String(new SignatureBaseBuilder(params, provider).createSignatureBase()),
+			new String(SignatureBasePlan.compile(params.getComponentIdentifiers(), registry).createSignatureBase(params, provider)));
+	}
+
+}
@@ -0,0 +1,104 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import org.greenbytes.http.sfv.ByteSequenceItem;
+import org.greenbytes.http.sfv.Dictionary;
+import org.greenbytes.http.sfv.Parser;
+import org.junit.jupiter.api.Test;
+
+class SignatureFieldTest {
+
+	private static final String SIGNATURE_INPUT = "sig-b21=();created=1618884473;keyid=\"test-key-rsa-pss\";nonce=\"b3k2pp5k7z-50gnwp.yemd\", "
+		+ "sig-b22=(\"@authority\" \"content-digest\" \"@query-param\";name=\"Pet\");created=1618884473;keyid=\"test-key-rsa-pss\";tag=\"header-example\", "
+		+ "sig-b23=(\"date\" \"@method\" \"@path\" \"@query\" \"@authority\" \"content-type\" \"content-digest\" \"content-length\")"
+		+ ";created=1618884473;expires=1618884773;keyid=\"test-key-rsa-pss\";alg=\"rsa-pss-sha512\", "
+		+ "sig-b24=(\"@status\" \"content-type\" \"content-digest\" \"content-length\");created=1618884473;keyid=\"test-key-ecc-p256\"";
+
+	@Test
+	public void testSignatureInput() {
+		SignatureField field = SignatureField.parse(SIGNATURE_INPUT);
+		Dictionary dictionary = Parser.parseDictionary(SIGNATURE_INPUT);
+
+		assertEquals(List.copyOf(dictionary.get().keySet()), List.copyOf(field.getLabels()));
+
+		for (String label : field.getLabels()) {
+			SignatureParameters expected = SignatureParameters.fromDictionaryEntry(dictionary, label);
+			SignatureParameters actual = field.getSignatureParameters(label);
+			assertEquals(expected.toComponentValue().serialize(), actual.toComponentValue().serialize());
+			assertEquals(expected.getExpires(), actual.getExpires());
+		}
+
+		assertNull(field.getSignatureParameters("missing"));
+
+		// unknown parameters round trip
+		String extra = "sig=(\"a\";sf;key=x);created=1;x-weight=1.50;x-flag";
+		assertEquals("(\"a\";sf;key=x);created=1;x-weight=1.5;x-flag",
+			SignatureField.parse(extra).getSignatureParameters("sig").toComponentValue().serialize());
+	}
+
+	@Test
+	public void testSignature() {
+		Random random = new Random(42);
+		for (int len = 0; len < 70; len++) {
+			byte[] bytes = new byte[len];
+			random.nextBytes(bytes);
+			String value = "a=?1, sig=" + ByteSequenceItem.valueOf(bytes).serialize() + ";x=1, b=(1 2)";
+			assertArrayEquals(bytes, SignatureField.parse(value).getSignature("sig"));
+
+			// without the padding
+			String unpadded = value.replaceAll("=*:;x", ":;x");
+			assertArrayEquals(bytes, SignatureField.parse(unpadded).getSignature("sig"));
+		}
+
+		String value = "sig1=:wqcAqbmYJ2ji2glfAMaRy4gruYYnx2nEFN2HN6jrnDnQCK1u02Gb04v9EDgwUPiu4A0w6vuQv5lIp5WPpBKRCw==:";
+		ByteBuffer expected = ((ByteSequenceItem) Parser.parseDictionary(value).get().get("sig1")).get();
+		byte[] expectedBytes = new byte[expected.remaining()];
+		expected.get(expectedBytes);
+		assertArrayEquals(expectedBytes, SignatureField.parse(value).getSignature("sig1"));
+
+		// duplicate keys take the last value
+		assertArrayEquals(new byte[] {1}, SignatureField.parse("a=:AA==:, a=:AQ==:").getSignature("a"));
+	}
+
+	@Test
+	public void testStrict() {
+		for (String invalid : List.of(
+				"Sig=:AA==:",
+				"sig=:AA==:,",
+				"sig=:AA==: x",
+				"sig=:A===:",
+				"sig=:A=A=:",
+				"sig=:AA==",
+				"sig=(\"a\"\"b\")",
+				"sig=(\"a\\x\")",
+				"sig=1234567890123456",
+				"sig=1.2345",
+				"sig=?2",
+				"sig=(\"a\");created=\"x",
+				"sig=\u00E9")) {
+			assertThrows(IllegalArgumentException.class, () -> SignatureField.parse(invalid), invalid);
+		}
+
+		assertEquals(0, SignatureField.parse(null).getLabels().size());
+		assertEquals(0, SignatureField.parse("  ").getLabels().size());
+
+		// valid syntax, but not valid for a signature
+		SignatureField field = SignatureField.parse("a=:AA==:, b=(\"x\" y), c=(\"x\");created=\"now\", d=(\"x\");keyid=1, e");
+		assertThrows(IllegalArgumentException.class, () -> field.getSignatureParameters("a"));
+		assertThrows(IllegalArgumentException.class, () -> field.getSignatureParameters("b"));
+		assertThrows(IllegalArgumentException.class, () -> field.getSignatureParameters("c"));
+		assertThrows(IllegalArgumentException.class, () -> field.getSignatureParameters("d"));
+		assertThrows(IllegalArgumentException.class, () -> field.getSignatureParameters("e"));
+		assertThrows(IllegalArgumentException.class, () -> field.getSignature("b"));
+		assertThrows(IllegalArgumentException.class, () -> field.getSignature("e"));
+	}
+
+}
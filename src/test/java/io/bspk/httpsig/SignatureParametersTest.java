@@ -2,6 +2,12 @@ package io.bspk.httpsig;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.greenbytes.http.sfv.TokenItem;
 import org.junit.Before;
 import org.junit.jupiter.api.Test;
 
@@ -12,4 +18,54 @@ class SignatureParametersTest {
 		TestKeys.getKeys();
 	}
 
+	@Test
+	public void testCachedValue() {
+		SignatureParameters params = new SignatureParameters()
+			.setKeyid("test-key")
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.addComponentIdentifier("@method");
+
+		String serialized = params.serializeComponentValue();
+		assertEquals("(\"@method\");keyid=\"test-key\";created=1618884473", serialized);
+		assertSame(serialized, params.serializeComponentValue());
+		assertSame(params.toComponentValue(), params.toComponentValue());
+
+		// changes are picked up, keeping the original order
+		params.setKeyid("other-key")
+			.addComponentIdentifier("Content-Type");
+		assertEquals("(\"@method\" \"content-type\");keyid=\"other-key\";created=1618884473", params.serializeComponentValue());
+
+		// removing a parameter and setting it again moves it to the end
+		params.setKeyid(null)
+			.setParameter("ext", TokenItem.valueOf("x"))
+			.setKeyid("test-key");
+		assertEquals("(\"@method\" \"content-type\");created=1618884473;ext=x;keyid=\"test-key\"", params.serializeComponentValue());
+
+		// the collections write through
+		params.getComponentIdentifiers().remove(1);
+		params.getParameters().remove("ext");
+		assertEquals("(\"@method\");created=1618884473;keyid=\"test-key\"", params.serializeComponentValue());
+	}
+
+	@Test
+	public void testGenericParameters() {
+		SignatureParameters params = new SignatureParameters()
+			.setParameters(Map.of("nonce", "n"))
+			.setParameter("alg", "ed25519")
+			.setParameter("created", 1618884473L)
+			.setParameter("ext", TokenItem.valueOf("x"));
+
+		assertEquals("n", params.getNonce());
+		assertEquals(HttpSigAlgorithm.ED25519, params.getAlg());
+		assertEquals(Instant.ofEpochSecond(1618884473), params.getCreated());
+		assertEquals(List.of("nonce", "alg", "created", "ext"), new ArrayList<>(params.getParameters().keySet()));
+		assertEquals(Instant.ofEpochSecond(1618884473), params.getParameters().get("created"));
+
+		params.getParameters().put("keyid", "test-key");
+		assertEquals("test-key", params.getKeyid());
+		assertEquals("();nonce=\"n\";alg=\"ed25519\";created=1618884473;ext=x;keyid=\"test-key\"", params.serializeComponentValue());
+
+		assertThrows(IllegalArgumentException.class, () -> params.setParameter("created", "yesterday"));
+	}
+
 }
@@ -0,0 +1,189 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.bspk.httpsig.VerificationPolicy.Reason;
+import io.bspk.httpsig.servlet.HttpServletRequestProvider;
+import io.bspk.httpsig.servlet.SignatureVerificationFilter;
+
+class SignatureVerificationFilterTest {
+
+	private static final Instant NOW = Instant.ofEpochSecond(1618884473);
+
+	private TestKeys keys;
+	private AtomicInteger resolved;
+	private KeyResolver keyResolver;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.resolved = new AtomicInteger();
+		this.keyResolver = keyid -> {
+			resolved.incrementAndGet();
+			return keyid.equals("test-key-ecc-p256") ? new HttpVerify(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256) : null;
+		};
+	}
+
+	@Test
+	public void testFilter() throws Exception {
+		VerificationPolicy policy = new VerificationPolicy()
+			.setAllowedAlgorithms(List.of(HttpSigAlgorithm.ECDSA, HttpSigAlgorithm.ED25519))
+			.setRequiredComponents(List.of("@method", "Content-Digest"))
+			.setMaxAge(Duration.ofMinutes(5))
+			.setClockSkew(Duration.ofSeconds(30));
+
+		SignatureVerificationFilter filter = new SignatureVerificationFilter(keyResolver, policy)
+			.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+
+		SignatureParameters good = new SignatureParameters()
+			.setCreated(NOW.minusSeconds(60))
+			.setKeyid("test-key-ecc-p256")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@path")
+			.addComponentIdentifier("content-digest");
+
+		assertEquals(200, filter(filter, good));
+
+		// rejected before the key is even looked up
+		resolved.set(0);
+		assertEquals(401, filter(filter, new SignatureParameters()
+			.setCreated(NOW.minusSeconds(600))
+			.setKeyid("test-key-ecc-p256")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("content-digest")));
+		assertEquals(401, filter(filter, new SignatureParameters()
+			.setCreated(NOW.minusSeconds(60))
+			.setKeyid("test-key-ecc-p256")
+			.addComponentIdentifier("@method")));
+		assertEquals(401, filter(filter, new SignatureParameters()
+			.setCreated(NOW.minusSeconds(60))
+			.setExpires(NOW.minusSeconds(31))
+			.setKeyid("test-key-ecc-p256")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("content-digest")));
+		assertEquals(401, filter(filter, new SignatureParameters()
+			.setCreated(NOW.minusSeconds(60))
+			.setAlg(HttpSigAlgorithm.RSAPSS)
+			.setKeyid("test-key-ecc-p256")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("content-digest")));
+		assertEquals(0, resolved.get());
+
+		assertEquals(401, filter(filter, new SignatureParameters()
+			.setCreated(NOW.minusSeconds(60))
+			.setKeyid("test-key-unknown")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("content-digest")));
+
+		assertEquals(1, filter.getRejections(Reason.TOO_OLD));
+		assertEquals(1, filter.getRejections(Reason.MISSING_COMPONENT));
+		assertEquals(1, filter.getRejections(Reason.EXPIRED));
+		assertEquals(1, filter.getRejections(Reason.ALGORITHM_NOT_ALLOWED));
+		assertEquals(1, filter.getRejections(Reason.UNKNOWN_KEY));
+
+		// no signature at all
+		assertEquals(401, filter(filter, null));
+		assertEquals(1, filter.getRejections(Reason.MISSING_SIGNATURE));
+		assertEquals(0, filter.getRejections().get(Reason.INVALID_SIGNATURE));
+
+		// a malformed label doesn't stop a good one from verifying
+		assertEquals(200, filter(filter, good, "bad=(1);created=1, "));
+		assertEquals(0, filter.getRejections(Reason.MALFORMED_SIGNATURE));
+
+		// a required component has to be covered without parameters
+		assertEquals(Reason.MISSING_COMPONENT, policy.check(new SignatureParameters()
+			.setCreated(NOW)
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier(StringItem.valueOf("content-digest")
+				.withParams(Parameters.valueOf(Map.of("req", true)))), NOW));
+	}
+
+	private int filter(SignatureVerificationFilter filter, SignatureParameters sigParams) throws Exception {
+		return filter(filter, sigParams, "");
+	}
+
+	/**
+	 * Sign a request with the parameters, if any, run it through the filter, and return the status.
+	 *
+	 * @param otherInputs members to put in the Signature-Input field ahead of the signature
+	 */
+	private int filter(SignatureVerificationFilter filter, SignatureParameters sigParams, String otherInputs) throws Exception {
+		Map<String, String> headers = new HashMap<>();
+		headers.put("content-digest", "sha-256=:X48E9qOokqqrvdts8nOJRJN3OWDUoyWxBf7kbu9DBPE=:");
+		Map<String, Object> attributes = new HashMap<>();
+
+		HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+			new Class<?>[] { HttpServletRequest.class },
+			(proxy, method, args) -> {
+				switch (method.getName()) {
+					case "getMethod":
+						return "POST";
+					case "getRequestURL":
+						return new StringBuffer("https://example.com/foo");
+					case "getRequestURI":
+						return "/foo";
+					case "getQueryString":
+						return null;
+					case "getHeaders":
+						String value = headers.get(((String) args[0]).toLowerCase());
+						return Collections.enumeration(value == null ? List.of() : List.of(value));
+					case "setAttribute":
+						attributes.put((String) args[0], args[1]);
+						return null;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+				}
+			});
+
+		if (sigParams != null) {
+			byte[] s = new HttpSign(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256)
+				.sign(new SignatureBaseBuilder(sigParams, new HttpServletRequestProvider(request)));
+			headers.put("signature-input", otherInputs + "sig1=" + sigParams.serializeComponentValue());
+			headers.put("signature", "sig1=:" + Base64.getEncoder().encodeToString(s) + ":");
+		}
+
+		int[] status = { 0 };
+		HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+			new Class<?>[] { HttpServletResponse.class },
+			(proxy, method, args) -> {
+				if (method.getName().equals("sendError")) {
+					status[0] = (Integer) args[0];
+					return null;
+				}
+				throw new UnsupportedOperationException(method.getName());
+			});
+
+		filter.doFilter(request, response, (req, res) -> {
+			SignatureParameters verified = (SignatureParameters) attributes.get(SignatureVerificationFilter.SIGNATURE_PARAMETERS_ATTRIBUTE);
+			assertEquals(sigParams.serializeComponentValue(), verified.serializeComponentValue());
+			status[0] = 200;
+		});
+
+		if (status[0] != 200) {
+			assertNull(attributes.get(SignatureVerificationFilter.SIGNATURE_PARAMETERS_ATTRIBUTE));
+		}
+		return status[0];
+	}
+
+}
@@ -0,0 +1,121 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+
+import io.bspk.httpsig.spring.RestTemplateRequestProvider;
+import io.bspk.httpsig.spring.SigningClientHttpRequestInterceptor;
+
+class SigningClientHttpRequestInterceptorTest {
+
+	private TestKeys keys;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+	}
+
+	@Test
+	public void testSignRequest() throws IOException {
+		SignatureParameters template = new SignatureParameters()
+			.setKeyid("test-key-ecc-p256")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("content-digest");
+
+		SigningProfile profile = new SigningProfile(new HttpSign(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256),
+			template, "sig1", null, Clock.systemUTC());
+
+		List<Boolean> timings = new ArrayList<>();
+		SigningClientHttpRequestInterceptor interceptor = new SigningClientHttpRequestInterceptor(profile)
+			.setContentDigest(ContentDigest.SHA_256)
+			.setListener((request, digestNanos, signNanos, success) -> timings.add(success && digestNanos > 0 && signNanos > 0));
+
+		HttpRequest request = request();
+		byte[] body = "{\"hello\": \"world\"}".getBytes(StandardCharsets.UTF_8);
+		List<HttpRequest> sent = new ArrayList<>();
+
+		interceptor.intercept(request, body, (req, b) -> {
+			sent.add(req);
+			return null;
+		});
+
+		assertEquals(List.of(request), sent);
+		assertEquals(List.of(true), timings);
+
+		// example from RFC 9530
+		assertEquals("sha-256=:X48E9qOokqqrvdts8nOJRJN3OWDUoyWxBf7kbu9DBPE=:", request.getHeaders().getFirst("Content-Digest"));
+
+		KeyResolver keyResolver = keyid -> new HttpVerify(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+		assertEquals(Map.of("sig1", true), new MessageVerifier(keyResolver).verify(new RestTemplateRequestProvider(request)));
+	}
+
+	@Test
+	public void testUnsignable() {
+		// an EC algorithm with a shared secret can't sign anything
+		SigningProfile profile = new SigningProfile(
+			new HttpSign(HttpSigAlgorithm.ECDSA, new OctetSequenceKey.Builder(new byte[32]).build()),
+			new SignatureParameters().addComponentIdentifier("@method"));
+
+		SigningClientHttpRequestInterceptor interceptor = new SigningClientHttpRequestInterceptor(profile);
+		HttpRequest request = request();
+
+		assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], (req, b) -> null));
+		assertFalse(request.getHeaders().containsKey("Signature"));
+	}
+
+	@Test
+	public void testMissingComponent() {
+		SigningProfile profile = new SigningProfile(new HttpSign(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256),
+			new SignatureParameters().addComponentIdentifier("x-missing"));
+
+		List<Boolean> results = new ArrayList<>();
+		SigningClientHttpRequestInterceptor interceptor = new SigningClientHttpRequestInterceptor(profile)
+			.setListener((request, digestNanos, signNanos, success) -> results.add(success));
+		HttpRequest request = request();
+
+		IOException e = assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], (req, b) -> null));
+		assertNotNull(e.getCause());
+		assertEquals(List.of(false), results);
+		assertFalse(request.getHeaders().containsKey("Signature"));
+	}
+
+	private HttpRequest request() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set("Content-Type", "application/json");
+		return new HttpRequest() {
+			@Override
+			public HttpHeaders getHeaders() {
+				return headers;
+			}
+
+			@Override
+			public String getMethodValue() {
+				return "POST";
+			}
+
+			@Override
+			public URI getURI() {
+				return URI.create("https://example.com/foo?param=Value&Pet=dog");
+			}
+		};
+	}
+
+}
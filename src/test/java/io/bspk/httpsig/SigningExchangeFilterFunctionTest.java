@@ -0,0 +1,106 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.Clock;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+
+import io.bspk.httpsig.spring.ClientRequestProvider;
+import io.bspk.httpsig.spring.ClientResponseProvider;
+import io.bspk.httpsig.spring.RestTemplateMessageWrapper;
+import io.bspk.httpsig.spring.SigningExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+class SigningExchangeFilterFunctionTest {
+
+	private TestKeys keys;
+	private KeyResolver keyResolver;
+	private SigningProfile profile;
+	private Scheduler scheduler;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.keyResolver = keyid -> new HttpVerify(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519);
+		SignatureParameters template = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("@request-target")
+			.addComponentIdentifier("content-type");
+		this.profile = new SigningProfile(new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519),
+			template, "sig1", null, Clock.systemUTC());
+		this.scheduler = Schedulers.newSingle("httpsig-test");
+	}
+
+	@AfterEach
+	public void teardown() {
+		scheduler.dispose();
+	}
+
+	@Test
+	public void testSignAndVerify() throws Exception {
+		ClientRequest request = ClientRequest.create(HttpMethod.POST, URI.create("https://example.com/foo?param=Value&Pet=dog"))
+			.header("Content-Type", "application/json")
+			.build();
+
+		// sign the response to whatever request comes in
+		AtomicReference<ClientRequest> sent = new AtomicReference<>();
+		AtomicReference<String> thread = new AtomicReference<>();
+		SignatureParameters responseParams = new SignatureParameters()
+			.setKeyid("test-key-ed25519")
+			.addComponentIdentifier("@status")
+			.addComponentIdentifier(StringItem.valueOf("@method")
+				.withParams(Parameters.valueOf(Map.of("req", true))));
+
+		SigningExchangeFilterFunction filter = new SigningExchangeFilterFunction(profile, scheduler)
+			.setVerifier(new MessageVerifier(keyResolver));
+
+		ExchangeFunction signingServer = r -> {
+			sent.set(r);
+			thread.set(Thread.currentThread().getName());
+			ClientResponse unsigned = ClientResponse.create(HttpStatus.OK).build();
+			byte[] signature = new HttpSign(HttpSigAlgorithm.ED25519, keys.TEST_KEY_ED25519)
+				.sign(new SignatureBaseBuilder(responseParams, new ClientResponseProvider(unsigned, r)));
+			HttpHeaders headers = new HttpHeaders();
+			new RestTemplateMessageWrapper(headers).addSignature("res", responseParams, signature);
+			return Mono.just(ClientResponse.from(unsigned).headers(h -> h.addAll(headers)).build());
+		};
+
+		ClientResponse response = filter.filter(request, signingServer).block();
+
+		assertNotNull(response);
+		assertTrue(thread.get().startsWith("httpsig-test"));
+		assertEquals(Map.of("sig1", true), new MessageVerifier(keyResolver).verify(new ClientRequestProvider(sent.get())));
+
+		// a response without a signature fails
+		Mono<ClientResponse> unsigned = filter.filter(request, r -> Mono.just(ClientResponse.create(HttpStatus.OK).build()));
+		assertThrows(IllegalStateException.class, () -> unsigned.block());
+
+		// so does a good signature next to a required label that fails
+		SigningExchangeFilterFunction requiredLabel = new SigningExchangeFilterFunction(profile, scheduler)
+			.setVerifier(new MessageVerifier(keyResolver).setRequiredLabels(Set.of("other")));
+		assertThrows(IllegalStateException.class, () -> requiredLabel.filter(request, signingServer).block());
+	}
+
+}
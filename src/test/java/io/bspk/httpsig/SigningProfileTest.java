@@ -0,0 +1,94 @@
+package io.bspk.httpsig;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.greenbytes.http.sfv.TokenItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SigningProfileTest {
+
+	private TestComponentProviders ctx;
+	private TestKeys keys;
+
+	@BeforeEach
+	public void setup() {
+		this.keys = TestKeys.getKeys();
+		this.ctx  = TestComponentProviders.getProviders();
+	}
+
+	@Test
+	public void testSameAsParameters() {
+		SignatureParameters template = new SignatureParameters()
+			.setKeyid("test-key-ecc-p256")
+			.setTag("profile")
+			.setParameter("ext", TokenItem.valueOf("x"))
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("content-digest");
+
+		AtomicInteger counter = new AtomicInteger();
+		Clock clock = Clock.fixed(Instant.ofEpochMilli(1618884473999L), ZoneOffset.UTC);
+		HttpSign signer = new HttpSign(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+		SigningProfile profile = new SigningProfile(signer, template, "sig1", () -> "n" + counter.incrementAndGet(), clock);
+
+		// changing the template afterwards doesn't change the profile
+		template.setKeyid("something-else");
+
+		SignatureParameters first = profile.createSignatureParameters();
+		SignatureParameters expected = new SignatureParameters()
+			.setCreated(Instant.ofEpochSecond(1618884473))
+			.setKeyid("test-key-ecc-p256")
+			.setTag("profile")
+			.setParameter("ext", TokenItem.valueOf("x"))
+			.setNonce("n1")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("content-digest");
+
+		assertEquals(expected.serializeComponentValue(), first.serializeComponentValue());
+		assertEquals(expected.toComponentValue().serialize(), first.toComponentValue().serialize());
+		assertEquals(expected.getCreated(), first.getCreated());
+		assertEquals("n1", first.getNonce());
+		assertArrayEquals(new SignatureBaseBuilder(expected, ctx.TEST_REQUEST).createSignatureBase(),
+			profile.getPlan().createSignatureBase(first, ctx.TEST_REQUEST));
+
+		SignatureParameters second = profile.createSignatureParameters();
+		assertNotEquals(first.serializeComponentValue(), second.serializeComponentValue());
+
+		// sign and add to the message under the profile's label
+		Map<String, SignatureParameters> added = new HashMap<>();
+		Map<String, byte[]> signatures = new HashMap<>();
+		SignatureParameters used = profile.sign(ctx.TEST_REQUEST, (label, sigParams, signature) -> {
+			added.put(label, sigParams);
+			signatures.put(label, signature);
+		});
+
+		assertEquals(used, added.get("sig1"));
+		assertTrue(new HttpVerify(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256)
+			.verify(new SignatureBaseBuilder(used, ctx.TEST_REQUEST), signatures.get("sig1")));
+	}
+
+	@Test
+	public void testInvalid() {
+		HttpSign signer = new HttpSign(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+
+		assertThrows(IllegalArgumentException.class, () -> new SigningProfile(signer,
+			new SignatureParameters().setCreated(Instant.now()).addComponentIdentifier("@method")));
+
+		assertThrows(IllegalArgumentException.class, () -> new SigningProfile(signer,
+			new SignatureParameters().addComponentIdentifier("@unknown")));
+	}
+
+}
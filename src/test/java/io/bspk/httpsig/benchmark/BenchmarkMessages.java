@@ -0,0 +1,53 @@
+package io.bspk.httpsig.benchmark;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.bspk.httpsig.ComponentProvider;
+import io.bspk.httpsig.UriRequestComponentProviderAdapter;
+
+/**
+ * A request message with a few more fields than the test message, including
+ * structured fields and repeated fields.
+ */
+public class BenchmarkMessages {
+
+	public static final Instant CREATED = Instant.ofEpochSecond(1618884473);
+
+	public static final String SIGNATURE_INPUT = "sig1=(\"@method\" \"@authority\" \"@path\" \"@query\" "
+		+ "\"content-type\" \"content-digest\" \"content-length\" \"example-dict\";sf \"example-dict\";key=\"b\")"
+		+ ";created=1618884473;expires=1618884773;keyid=\"test-key-rsa-pss\";nonce=\"b3k2pp5k7z-50gnwp.yemd\""
+		+ ";alg=\"rsa-pss-sha512\";tag=\"benchmark\", "
+		+ "proxy=(\"@method\" \"@target-uri\" \"forwarded\");created=1618884480;keyid=\"test-key-ecc-p256\"";
+
+	public static ComponentProvider request() {
+		URI uri = URI.create("https://example.com/foo?param=Value&Pet=dog");
+
+		Map<String, List<String>> fields = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		fields.put("Host", List.of("example.com"));
+		fields.put("Date", List.of("Tue, 20 Apr 2021 02:07:55 GMT"));
+		fields.put("Content-Type", List.of("application/json"));
+		fields.put("Content-Digest", List.of("sha-512=:WZDPaVn/7XgHaAy8pmojAkGWoRx2UFChF41A2svX+TaPm+AbwAgBWnrIiYllu7BNNyealdVLvRwEmTHWXvJwew==:"));
+		fields.put("Content-Length", List.of("18"));
+		fields.put("Authorization", List.of("Bearer 2YotnFZFEjr1zCsicMWpAA"));
+		fields.put("X-Forwarded-For", List.of("192.0.2.1", " 198.51.100.7 ", "203.0.113.9"));
+		fields.put("Example-Dict", List.of(" a=1,    b=2;x=1;y=2,   c=(a   b   c)  "));
+
+		return new UriRequestComponentProviderAdapter(uri) {
+
+			@Override
+			public String getMethod() {
+				return "POST";
+			}
+
+			@Override
+			public String getField(String name) {
+				return ComponentProvider.combineFieldValues(fields.get(name));
+			}
+		};
+	}
+
+}
@@ -0,0 +1,35 @@
+package io.bspk.httpsig.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks in this package with the GC profiler, so that allocation
+ * per operation is reported next to the time per operation.
+ *
+ * The optional first argument is a regular expression selecting which
+ * benchmarks to run. Run all of them with:
+ *
+ * <pre>
+ * mvn -Pbenchmark test -DskipTests
+ * </pre>
+ *
+ * or a subset with {@code -Dbenchmark=SignVerifyBenchmark}.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + ".";
+
+		Options opt = new OptionsBuilder()
+			.include(include)
+			.addProfiler(GCProfiler.class)
+			.build();
+
+		new Runner(opt).run();
+	}
+
+}
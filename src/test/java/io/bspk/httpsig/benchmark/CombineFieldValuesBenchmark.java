@@ -0,0 +1,83 @@
+package io.bspk.httpsig.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.base.Strings;
+
+import io.bspk.httpsig.ComponentProvider;
+
+/**
+ * {@link ComponentProvider#combineFieldValues(List)} against the stream and
+ * regex version it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CombineFieldValuesBenchmark {
+
+	@Param({"single", "padded", "multiple", "folded"})
+	public String values;
+
+	private List<String> fields;
+
+	@Setup
+	public void setup() {
+		switch (values) {
+			case "single":
+				fields = List.of("application/json");
+				break;
+			case "padded":
+				fields = List.of("  application/json ");
+				break;
+			case "multiple":
+				fields = List.of("192.0.2.123", " 198.51.100.17 ", "203.0.113.9");
+				break;
+			case "folded":
+				fields = List.of("max-age=60,\r\n    must-revalidate", "  private");
+				break;
+			default:
+				throw new IllegalArgumentException(values);
+		}
+	}
+
+	@Benchmark
+	public String combine() {
+		return ComponentProvider.combineFieldValues(fields);
+	}
+
+	@Benchmark
+	public String legacy() {
+		return legacyCombineFieldValues(fields);
+	}
+
+	static String legacyCombineFieldValues(List<String> fields) {
+		if (fields == null) {
+			return null;
+		} else {
+			String val = fields.stream()
+				.map(String::strip)
+				.map(v -> v.replaceAll("[\\s\\t]*\\r\\n[\\s\\t]*", " "))
+				.collect(Collectors.joining(", "));
+
+			return Strings.emptyToNull(val);
+		}
+	}
+
+}
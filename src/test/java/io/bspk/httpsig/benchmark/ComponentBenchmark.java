@@ -0,0 +1,89 @@
+package io.bspk.httpsig.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.greenbytes.http.sfv.Dictionary;
+import org.greenbytes.http.sfv.ParseException;
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.Parser;
+import org.greenbytes.http.sfv.StringItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.bspk.httpsig.ComponentProvider;
+import io.bspk.httpsig.SignatureField;
+import io.bspk.httpsig.SignatureParameters;
+
+/**
+ * Parsing signature parameters and resolving single component values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComponentBenchmark {
+
+	private ComponentProvider ctx;
+	private Dictionary signatureInput;
+	private StringItem field;
+	private StringItem sfField;
+	private StringItem keyField;
+	private StringItem queryParam;
+
+	@Setup
+	public void setup() throws ParseException {
+		ctx = BenchmarkMessages.request();
+		signatureInput = Parser.parseDictionary(BenchmarkMessages.SIGNATURE_INPUT);
+		field = StringItem.valueOf("content-type");
+		sfField = StringItem.valueOf("example-dict").withParams(Parameters.valueOf(Map.of("sf", true)));
+		keyField = StringItem.valueOf("example-dict").withParams(Parameters.valueOf(Map.of("key", "b")));
+		queryParam = StringItem.valueOf("@query-param").withParams(Parameters.valueOf(Map.of("name", "Pet")));
+	}
+
+	@Benchmark
+	public SignatureParameters fromDictionaryEntry() {
+		return SignatureParameters.fromDictionaryEntry(signatureInput, "sig1");
+	}
+
+	@Benchmark
+	public SignatureParameters parseAndFromDictionaryEntry() throws ParseException {
+		return SignatureParameters.fromDictionaryEntry(Parser.parseDictionary(BenchmarkMessages.SIGNATURE_INPUT), "sig1");
+	}
+
+	@Benchmark
+	public SignatureParameters parseSignatureField() {
+		return SignatureField.parse(BenchmarkMessages.SIGNATURE_INPUT).getSignatureParameters("sig1");
+	}
+
+	@Benchmark
+	public String fieldValue() {
+		return ctx.getComponentValue(field);
+	}
+
+	@Benchmark
+	public String sfFieldValue() {
+		return ctx.getComponentValue(sfField);
+	}
+
+	@Benchmark
+	public String keyFieldValue() {
+		return ctx.getComponentValue(keyField);
+	}
+
+	@Benchmark
+	public String queryParamValue() {
+		return ctx.getComponentValue(queryParam);
+	}
+
+}
@@ -0,0 +1,184 @@
+package io.bspk.httpsig.benchmark;
+
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+
+import org.bouncycastle.jcajce.provider.digest.SHA256;
+import org.bouncycastle.jcajce.provider.digest.SHA512;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nimbusds.jose.crypto.impl.ECDSA;
+
+import io.bspk.httpsig.HttpSigAlgorithm;
+import io.bspk.httpsig.HttpSign;
+import io.bspk.httpsig.HttpVerify;
+import io.bspk.httpsig.TestKeys;
+
+/**
+ * Compares the pooled primitives in {@link HttpSign} and {@link HttpVerify}
+ * against looking up and initializing a fresh {@code Signature}, {@code Mac}
+ * and {@code MessageDigest} for every message, the way it used to be done.
+ *
+ * Run it through {@link BenchmarkRunner} with {@code -Dbenchmark=PrimitivePoolBenchmark}
+ * to get ns/op alongside the GC profiler's allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimitivePoolBenchmark {
+
+	private byte[] base;
+
+	private HttpSign rsaPssSign;
+	private HttpVerify rsaPssVerify;
+	private byte[] rsaPssSignature;
+	private PrivateKey rsaPrivateKey;
+	private PublicKey rsaPublicKey;
+
+	private HttpSign ecdsaSign;
+	private HttpVerify ecdsaVerify;
+	private byte[] ecdsaSignature;
+	private PrivateKey ecPrivateKey;
+	private PublicKey ecPublicKey;
+
+	private HttpSign hmacSign;
+	private HttpVerify hmacVerify;
+	private byte[] hmacSignature;
+	private SecretKey secretKey;
+
+	@Setup
+	public void setup() throws Exception {
+		TestKeys keys = TestKeys.getKeys();
+
+		base = ("\"@method\": POST\n"
+			+ "\"@authority\": example.com\n"
+			+ "\"@path\": /foo\n"
+			+ "\"content-type\": application/json\n"
+			+ "\"@signature-params\": (\"@method\" \"@authority\" \"@path\" \"content-type\")"
+			+ ";created=1618884473;keyid=\"test-key-rsa-pss\"").getBytes();
+
+		rsaPssSign = new HttpSign(HttpSigAlgorithm.RSAPSS, keys.TEST_KEY_RSA_PSS);
+		rsaPssVerify = new HttpVerify(HttpSigAlgorithm.RSAPSS, keys.TEST_KEY_RSA_PSS);
+		rsaPssSignature = rsaPssSign.sign(base);
+		rsaPrivateKey = keys.TEST_KEY_RSA_PSS.toRSAKey().toPrivateKey();
+		rsaPublicKey = keys.TEST_KEY_RSA_PSS.toRSAKey().toPublicKey();
+
+		ecdsaSign = new HttpSign(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+		ecdsaVerify = new HttpVerify(HttpSigAlgorithm.ECDSA, keys.TEST_KEY_ECC_P256);
+		ecPrivateKey = keys.TEST_KEY_ECC_P256.toECKey().toPrivateKey();
+		ecPublicKey = keys.TEST_KEY_ECC_P256.toECKey().toPublicKey();
+		Signature ecSigner = Signature.getInstance("SHA256withECDSA");
+		ecSigner.initSign(ecPrivateKey);
+		ecSigner.update(new SHA256.Digest().digest(base));
+		ecdsaSignature = ECDSA.transcodeSignatureToConcat(ecSigner.sign(), 64);
+
+		hmacSign = new HttpSign(HttpSigAlgorithm.HMAC, keys.TEST_SHARED_SECRET);
+		hmacVerify = new HttpVerify(HttpSigAlgorithm.HMAC, keys.TEST_SHARED_SECRET);
+		hmacSignature = hmacSign.sign(base);
+		secretKey = keys.TEST_SHARED_SECRET.toOctetSequenceKey().toSecretKey();
+	}
+
+	@Benchmark
+	public byte[] rsaPssSignPooled() {
+		return rsaPssSign.sign(base);
+	}
+
+	@Benchmark
+	public byte[] rsaPssSignFresh() throws Exception {
+		Signature signer = Signature.getInstance("RSASSA-PSS");
+		signer.setParameter(new PSSParameterSpec("SHA-512", "MGF1", MGF1ParameterSpec.SHA512, 64, 1));
+		MessageDigest sha = new SHA512.Digest();
+		signer.initSign(rsaPrivateKey);
+		signer.update(sha.digest(base));
+		return signer.sign();
+	}
+
+	@Benchmark
+	public boolean rsaPssVerifyPooled() {
+		return rsaPssVerify.verify(base, rsaPssSignature);
+	}
+
+	@Benchmark
+	public boolean rsaPssVerifyFresh() throws Exception {
+		Signature verifier = Signature.getInstance("RSASSA-PSS");
+		verifier.setParameter(new PSSParameterSpec("SHA-512", "MGF1", MGF1ParameterSpec.SHA512, 64, 1));
+		MessageDigest sha = new SHA512.Digest();
+		verifier.initVerify(rsaPublicKey);
+		verifier.update(sha.digest(base));
+		return verifier.verify(rsaPssSignature);
+	}
+
+	@Benchmark
+	public byte[] ecdsaSignPooled() {
+		return ecdsaSign.sign(base);
+	}
+
+	@Benchmark
+	public byte[] ecdsaSignFresh() throws Exception {
+		Signature signer = Signature.getInstance("SHA256withECDSA");
+		MessageDigest sha = new SHA256.Digest();
+		signer.initSign(ecPrivateKey);
+		signer.update(sha.digest(base));
+		// the same R || S output as the pooled signer
+		return ECDSA.transcodeSignatureToConcat(signer.sign(), 64);
+	}
+
+	@Benchmark
+	public boolean ecdsaVerifyPooled() {
+		return ecdsaVerify.verify(base, ecdsaSignature);
+	}
+
+	@Benchmark
+	public boolean ecdsaVerifyFresh() throws Exception {
+		Signature verifier = Signature.getInstance("SHA256withECDSA");
+		MessageDigest sha = new SHA256.Digest();
+		verifier.initVerify(ecPublicKey);
+		verifier.update(sha.digest(base));
+		return verifier.verify(ECDSA.transcodeSignatureToDER(ecdsaSignature));
+	}
+
+	@Benchmark
+	public byte[] hmacSignPooled() {
+		return hmacSign.sign(base);
+	}
+
+	@Benchmark
+	public byte[] hmacSignFresh() throws Exception {
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(secretKey);
+		return mac.doFinal(base);
+	}
+
+	@Benchmark
+	public boolean hmacVerifyPooled() {
+		return hmacVerify.verify(base, hmacSignature);
+	}
+
+	@Benchmark
+	public boolean hmacVerifyFresh() throws Exception {
+		Mac mac = Mac.getInstance("HmacSHA256");
+		mac.init(secretKey);
+		return MessageDigest.isEqual(mac.doFinal(base), hmacSignature);
+	}
+
+}
@@ -0,0 +1,106 @@
+package io.bspk.httpsig.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+
+import io.bspk.httpsig.HttpSigAlgorithm;
+import io.bspk.httpsig.HttpSign;
+import io.bspk.httpsig.HttpVerify;
+import io.bspk.httpsig.SignatureBaseBuilder;
+import io.bspk.httpsig.SignatureParameters;
+import io.bspk.httpsig.TestComponentProviders;
+import io.bspk.httpsig.TestKeys;
+
+/**
+ * {@link HttpSign#sign} and {@link HttpVerify#verify} for every algorithm, over a
+ * prepared base and over a base streamed from a {@link SignatureBaseBuilder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignVerifyBenchmark {
+
+	@Param({"rsa-pss-sha512", "rsa-v1_5-sha256", "hmac-sha256", "ecdsa-p256-sha256", "ed25519", "jose"})
+	public String alg;
+
+	private HttpSign signer;
+	private HttpVerify verifier;
+	private SignatureBaseBuilder builder;
+	private byte[] base;
+	private byte[] signature;
+
+	@Setup
+	public void setup() {
+		TestKeys keys = TestKeys.getKeys();
+		HttpSigAlgorithm httpSigAlgorithm = HttpSigAlgorithm.of(alg);
+
+		JWK key;
+		if (httpSigAlgorithm.equals(HttpSigAlgorithm.RSAPSS)) {
+			key = keys.TEST_KEY_RSA_PSS;
+		} else if (httpSigAlgorithm.equals(HttpSigAlgorithm.RSA15)) {
+			key = keys.TEST_KEY_RSA;
+		} else if (httpSigAlgorithm.equals(HttpSigAlgorithm.HMAC)) {
+			key = keys.TEST_SHARED_SECRET;
+		} else if (httpSigAlgorithm.equals(HttpSigAlgorithm.ECDSA)) {
+			key = keys.TEST_KEY_ECC_P256;
+		} else if (httpSigAlgorithm.equals(HttpSigAlgorithm.ED25519)) {
+			key = keys.TEST_KEY_ED25519;
+		} else {
+			key = new RSAKey.Builder(keys.TEST_KEY_RSA_PSS.toRSAKey()).algorithm(JWSAlgorithm.PS512).build();
+		}
+
+		signer = new HttpSign(httpSigAlgorithm, key);
+		verifier = new HttpVerify(httpSigAlgorithm, key);
+
+		SignatureParameters params = new SignatureParameters()
+			.setKeyid(key.getKeyID())
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("@path")
+			.addComponentIdentifier("content-type")
+			.addComponentIdentifier("content-digest");
+
+		builder = new SignatureBaseBuilder(params, TestComponentProviders.getProviders().TEST_REQUEST);
+		base = builder.createSignatureBase();
+		signature = signer.sign(base);
+	}
+
+	@Benchmark
+	public byte[] sign() {
+		return signer.sign(base);
+	}
+
+	@Benchmark
+	public byte[] signStreamed() {
+		return signer.sign(builder);
+	}
+
+	@Benchmark
+	public boolean verify() {
+		return verifier.verify(base, signature);
+	}
+
+	@Benchmark
+	public boolean verifyStreamed() {
+		return verifier.verify(builder, signature);
+	}
+
+}
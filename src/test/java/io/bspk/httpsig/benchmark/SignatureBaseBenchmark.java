@@ -0,0 +1,138 @@
+package io.bspk.httpsig.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.greenbytes.http.sfv.Parameters;
+import org.greenbytes.http.sfv.StringItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.bspk.httpsig.ComponentProvider;
+import io.bspk.httpsig.HttpSigAlgorithm;
+import io.bspk.httpsig.HttpSign;
+import io.bspk.httpsig.SignatureBaseBuilder;
+import io.bspk.httpsig.SignatureBasePlan;
+import io.bspk.httpsig.SignatureParameters;
+import io.bspk.httpsig.SigningProfile;
+import io.bspk.httpsig.TestKeys;
+
+/**
+ * {@link SignatureBaseBuilder}, a compiled {@link SignatureBasePlan}, and a
+ * {@link SigningProfile} over a small and a large set of covered components.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignatureBaseBenchmark {
+
+	@Param({"small", "large"})
+	public String components;
+
+	private SignatureBaseBuilder builder;
+	private SignatureBasePlan plan;
+	private SignatureParameters params;
+	private ComponentProvider ctx;
+	private ByteArrayOutputStream buffer;
+	private SigningProfile profile;
+
+	@Setup
+	public void setup() {
+		ctx = BenchmarkMessages.request();
+
+		params = parameters();
+		builder = new SignatureBaseBuilder(params, ctx);
+		plan = SignatureBasePlan.compile(params);
+		buffer = new ByteArrayOutputStream();
+
+		SignatureParameters template = parameters()
+			.setCreated(null)
+			.setNonce(null);
+		profile = new SigningProfile(new HttpSign(HttpSigAlgorithm.HMAC, TestKeys.getKeys().TEST_SHARED_SECRET),
+			template, "sig1", params.getNonce() == null ? null : params::getNonce, Clock.systemUTC());
+	}
+
+	private SignatureParameters parameters() {
+		SignatureParameters params = new SignatureParameters()
+			.setCreated(BenchmarkMessages.CREATED)
+			.setKeyid("test-key-rsa-pss")
+			.addComponentIdentifier("@method")
+			.addComponentIdentifier("@authority")
+			.addComponentIdentifier("@path");
+
+		if (components.equals("large")) {
+			params
+				.setNonce("b3k2pp5k7z-50gnwp.yemd")
+				.setTag("benchmark")
+				.addComponentIdentifier("@target-uri")
+				.addComponentIdentifier("@scheme")
+				.addComponentIdentifier("@request-target")
+				.addComponentIdentifier("@query")
+				.addComponentIdentifier(StringItem.valueOf("@query-param")
+					.withParams(Parameters.valueOf(Map.of("name", "Pet"))))
+				.addComponentIdentifier("date")
+				.addComponentIdentifier("content-type")
+				.addComponentIdentifier("content-length")
+				.addComponentIdentifier("content-digest")
+				.addComponentIdentifier("authorization")
+				.addComponentIdentifier("x-forwarded-for")
+				.addComponentIdentifier(StringItem.valueOf("example-dict")
+					.withParams(Parameters.valueOf(Map.of("sf", true))))
+				.addComponentIdentifier(StringItem.valueOf("example-dict")
+					.withParams(Parameters.valueOf(Map.of("key", "b"))));
+		}
+
+		return params;
+	}
+
+	@Benchmark
+	public byte[] createSignatureBase() {
+		return builder.createSignatureBase();
+	}
+
+	@Benchmark
+	public int writeSignatureBase() throws IOException {
+		buffer.reset();
+		builder.writeSignatureBase(buffer);
+		return buffer.size();
+	}
+
+	@Benchmark
+	public int writePlan() throws IOException {
+		buffer.reset();
+		plan.writeSignatureBase(params, ctx, buffer);
+		return buffer.size();
+	}
+
+	// new parameters for every message, as a client without a profile would have to
+	@Benchmark
+	public int writeNewParameters() throws IOException {
+		buffer.reset();
+		SignatureParameters params = parameters();
+		new SignatureBaseBuilder(params, ctx).writeSignatureBase(buffer);
+		return buffer.size();
+	}
+
+	@Benchmark
+	public int writeProfile() throws IOException {
+		buffer.reset();
+		profile.getPlan().writeSignatureBase(profile.createSignatureParameters(), ctx, buffer);
+		return buffer.size();
+	}
+
+}